@@ -5,6 +5,7 @@ import com.example.cinema_back_end.repositories.*;
 import com.example.cinema_back_end.security.service.IUserService;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -55,9 +56,16 @@ public class CinemaBackEndApplication {
     @Autowired
     private ISeatRepository seatRepository;
 
+    // Tắt đi khi chạy với db khác (vd db nhúng của benchmark) không có sẵn phòng 1
+    @Value("${cinema.demo-data.enabled:true}")
+    private boolean demoDataEnabled;
+
     // Do chưa có trang admin để thêm phim và lịch chiếu nên thêm tạm dữ liệu xuống db để demo
     @PostConstruct
     public void init() {
+        if (!demoDataEnabled) {
+            return;
+        }
         // Chạy 1 lần đầu app rồi bỏ comment đoạn này rồi chạy lại để add data ghế ngồi cho phòng 1
         Room room = roomRepository.findById(1).get();
 
@@ -1,26 +1,86 @@
 package com.example.cinema_back_end.apis;
 
 import com.example.cinema_back_end.dtos.BookingRequestDTO;
+import com.example.cinema_back_end.services.BookingRejectedException;
+import com.example.cinema_back_end.services.BookingSequencer;
 import com.example.cinema_back_end.services.IBillService;
+import com.example.cinema_back_end.services.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @CrossOrigin("*")
 @RestController
 @RequestMapping("/api/bills")
 public class BillApi {
+    private static final Logger logger = LoggerFactory.getLogger(BillApi.class);
+    private static final String BOOKED_MESSAGE = "Bạn đã mua vé xem phim thành công !";
+    private static final String RETRY_MESSAGE = "Hệ thống đang bận, mời bạn thử lại sau!";
+
     @Autowired
     private IBillService billService;
+    @Autowired
+    private BookingSequencer bookingSequencer;
+    @Autowired
+    private IdempotencyService idempotencyService;
 
+    // Client gửi cùng 1 Idempotency-Key cho mọi lần gửi lại của 1 lượt thanh toán,
+    // lần gửi lại trả luôn kết quả của lần đầu (đặt được / bị từ chối) mà không đặt vé lại.
+    // Lỗi db / hệ thống không phải kết quả cuối cùng: không ghi nhớ, trả 503 để client gửi lại cùng key
     @PostMapping("/create-new-bill")
-    public ResponseEntity<String> createNewBill(@RequestBody BookingRequestDTO bookingRequestDTO) {
+    public CompletableFuture<ResponseEntity<String>> createNewBill(@RequestBody BookingRequestDTO bookingRequestDTO,
+                                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        CompletableFuture<ResponseEntity<String>> result;
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            result = book(bookingRequestDTO);
+        } else {
+            try {
+                // Gắn kèm user id để key của người này không đụng key của người khác
+                result = idempotencyService.execute(bookingRequestDTO.getUserId() + ":" + idempotencyKey,
+                        bookingRequestDTO, () -> book(bookingRequestDTO));
+            } catch (RuntimeException e) {
+                return CompletableFuture.completedFuture(new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY));
+            }
+        }
+        return result.exceptionally(e -> {
+            logger.warn("Booking failed for schedule {}", bookingRequestDTO.getScheduleId(), unwrap(e));
+            return new ResponseEntity<>(RETRY_MESSAGE, HttpStatus.SERVICE_UNAVAILABLE);
+        });
+    }
+
+    // Chỉ từ chối nghiệp vụ mới thành 417, lỗi khác để future lỗi (IdempotencyService không ghi nhớ future lỗi)
+    private CompletableFuture<ResponseEntity<String>> book(BookingRequestDTO bookingRequestDTO) {
+        // Lịch chiếu được cấu hình đặt vé tuần tự thì xếp hàng cho luồng ghi của lịch đó, không giữ luồng của request.
+        // Lượt giữ ghế đã có ghế sẵn trong kho nên vẫn đặt thẳng như bình thường
+        if (bookingRequestDTO.getLeaseId() == null && bookingSequencer.isSequenced(bookingRequestDTO.getScheduleId())) {
+            return bookingSequencer.submit(bookingRequestDTO).handle((result, e) -> {
+                if (e == null) {
+                    return new ResponseEntity<>(BOOKED_MESSAGE, HttpStatus.OK);
+                }
+                Throwable cause = unwrap(e);
+                if (cause instanceof BookingRejectedException) {
+                    return new ResponseEntity<>(cause.getMessage(), HttpStatus.EXPECTATION_FAILED);
+                }
+                throw new CompletionException(cause);
+            });
+        }
         try {
             billService.createNewBill(bookingRequestDTO);
+        } catch (BookingRejectedException e) {
+            return CompletableFuture.completedFuture(new ResponseEntity<>(e.getMessage(), HttpStatus.EXPECTATION_FAILED));
         } catch (RuntimeException e) {
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.EXPECTATION_FAILED);
+            return CompletableFuture.failedFuture(e);
         }
-        return new ResponseEntity<>("Bạn đã mua vé xem phim thành công !", HttpStatus.OK);
+        return CompletableFuture.completedFuture(new ResponseEntity<>(BOOKED_MESSAGE, HttpStatus.OK));
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 }
@@ -1,24 +1,28 @@
 package com.example.cinema_back_end.apis;
 
-import com.example.cinema_back_end.dtos.BranchDTO;
+import com.example.cinema_back_end.events.CatalogChangedEvent;
 import com.example.cinema_back_end.repositories.IBranchRepository;
 import com.example.cinema_back_end.services.IBranchService;
+import com.example.cinema_back_end.services.ResponseBodyCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @CrossOrigin("*")
 @RequestMapping(value="/api/branches", produces = "application/json")
 public class BranchApi {
     @Autowired
     private IBranchService branchService;
+    @Autowired
+    private ResponseBodyCache responseBodyCache;
 
+    // Rạp chiếu phim chỉ đổi khi lịch chiếu đổi nên trả body đã dựng sẵn
     @GetMapping
-    private ResponseEntity<List<BranchDTO>> getBranchesThatShowTheMovie(@RequestParam Integer movieId){
-        return new ResponseEntity<>(branchService.getBranchesThatShowTheMovie(movieId), HttpStatus.OK);
+    private ResponseEntity<byte[]> getBranchesThatShowTheMovie(@RequestParam Integer movieId,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        return responseBodyCache.respond(CatalogChangedEvent.Section.SCHEDULES, "branches:" + movieId, acceptEncoding,
+                () -> branchService.getBranchesThatShowTheMovie(movieId));
     }
 }
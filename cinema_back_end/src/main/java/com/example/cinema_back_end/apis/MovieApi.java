@@ -1,29 +1,69 @@
 package com.example.cinema_back_end.apis;
 
 import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.dtos.MovieFacetsDTO;
+import com.example.cinema_back_end.dtos.MovieSuggestionDTO;
 import com.example.cinema_back_end.entities.Movie;
-import com.example.cinema_back_end.repositories.IMovieRepository;
+import com.example.cinema_back_end.events.CatalogChangedEvent;
 import com.example.cinema_back_end.services.IMovieService;
+import com.example.cinema_back_end.services.MovieFacetIndex;
+import com.example.cinema_back_end.services.ResponseBodyCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @CrossOrigin("*")
 @RequestMapping(value="/api/movies", produces = "application/json")
 public class MovieApi {
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private IMovieService movieService;
-
     @Autowired
-    private IMovieRepository movieRepository;
+    private ResponseBodyCache responseBodyCache;
 
+    // Trả body json / gzip đã dựng sẵn, chỉ serialize lại sau khi sửa phim
     @GetMapping("/showing")
-    public ResponseEntity<List<MovieDTO>> findAllShowingMovies(){
-        return new ResponseEntity<>(movieService.findAllShowingMovies(), HttpStatus.OK);
+    public ResponseEntity<byte[]> findAllShowingMovies(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        return responseBodyCache.respond(CatalogChangedEvent.Section.MOVIES, "showing", acceptEncoding,
+                movieService::findAllShowingMovies);
+    }
+
+    // Danh sách rút gọn cho lưới phim, mỗi trang tối đa limit phim có id nhỏ hơn afterId.
+    // Trang sau gọi lại với afterId = id của phim cuối cùng trang trước
+    @GetMapping("/showing/summaries")
+    public ResponseEntity<?> findShowingMovieSummaries(@RequestParam(required = false) Integer afterId,
+                                                       @RequestParam(defaultValue = "20") int limit,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        if (limit < 1 || (afterId != null && afterId < 1)) {
+            return new ResponseEntity<>("Tham số phân trang không hợp lệ!", HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        return responseBodyCache.respond(CatalogChangedEvent.Section.MOVIES, "summaries:" + afterId + ":" + pageSize,
+                acceptEncoding, () -> movieService.findShowingMovieSummaries(afterId, pageSize));
+    }
+
+    // Lọc phim đang chiếu theo thể loại / ngôn ngữ / độ tuổi, vd ?categories=Hài&categories=Hoạt Hình&rated=P.
+    // Trả về phim khớp kèm số phim của từng giá trị
+    @GetMapping("/showing/facets")
+    public MovieFacetsDTO filterShowingMovies(@RequestParam(required = false) List<String> categories,
+                                              @RequestParam(required = false) List<String> language,
+                                              @RequestParam(required = false) List<String> rated){
+        Map<String, List<String>> selectedFacets = new HashMap<>();
+        selectedFacets.put(MovieFacetIndex.CATEGORIES, categories);
+        selectedFacets.put(MovieFacetIndex.LANGUAGE, language);
+        selectedFacets.put(MovieFacetIndex.RATED, rated);
+        return movieService.filterShowingMovies(selectedFacets);
     }
 
     @GetMapping("/details")
@@ -36,8 +76,18 @@ public class MovieApi {
         return movieService.findAllShowingMoviesByName(name);
     }
 
+    // Gợi ý tên phim cho ô tìm kiếm trong lúc gõ, đọc từ bộ nhớ. Cho trình duyệt cache ngắn
+    // để gõ lại / xoá lùi về tiền tố cũ không phải gọi lại
+    @GetMapping("/showing/suggest")
+    public ResponseEntity<List<MovieSuggestionDTO>> suggestShowingMovies(@RequestParam String prefix,
+                                                                         @RequestParam(defaultValue = "8") int limit){
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic())
+                .body(movieService.suggestShowingMovies(prefix, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
     @PostMapping
     public void updateMovie(@RequestBody Movie movie){
-        movieRepository.save(movie);
+        movieService.saveMovie(movie);
     }
 }
@@ -1,17 +1,26 @@
 package com.example.cinema_back_end.apis;
 
+import com.example.cinema_back_end.dtos.RoomConflictDTO;
 import com.example.cinema_back_end.dtos.ScheduleDTO;
+import com.example.cinema_back_end.dtos.ScheduleIndexStatsDTO;
+import com.example.cinema_back_end.dtos.ShowtimeBranchDTO;
 import com.example.cinema_back_end.services.IScheduleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 @CrossOrigin("*")
 @RestController
 @RequestMapping(value = "/api/schedule", produces = "application/json")
 public class ScheduleApi {
+    private static final int MAX_CALENDAR_DAYS = 31;
+
     @Autowired
     private IScheduleService scheduleService;
 
@@ -21,6 +30,51 @@ public class ScheduleApi {
         return scheduleService.getStartTimes(movieId,branchId,LocalDate.parse(startDate));
     }
 
+    // Giờ chiếu của nhiều ngày liên tiếp trong 1 request, vd {"2021-01-05": ["09:00", "13:30"], "2021-01-06": [], ...}
+    @GetMapping("/calendar")
+    public ResponseEntity<?> getStartTimeCalendar(@RequestParam Integer movieId, @RequestParam Integer branchId,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                  @RequestParam(defaultValue = "10") int days) {
+        if (days < 1 || days > MAX_CALENDAR_DAYS) {
+            return new ResponseEntity<>("Số ngày phải từ 1 tới " + MAX_CALENDAR_DAYS + "!", HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(scheduleService.getStartTimeCalendar(movieId, branchId, fromDate, days), HttpStatus.OK);
+    }
+
+    // Suất chiếu của 1 phim trong days ngày từ fromDate (mặc định hôm nay) dạng cây chi nhánh -> ngày -> giờ -> phòng
+    // (kèm id lịch và số ghế còn trống), client chọn chi nhánh / ngày / giờ / phòng trên cùng 1 payload rồi đi thẳng
+    // tới sơ đồ ghế
+    @GetMapping("/showtimes")
+    public ResponseEntity<?> getShowtimeTree(@RequestParam Integer movieId,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                             @RequestParam(defaultValue = "14") int days) {
+        if (days < 1 || days > MAX_CALENDAR_DAYS) {
+            return new ResponseEntity<>("Số ngày phải từ 1 tới " + MAX_CALENDAR_DAYS + "!", HttpStatus.BAD_REQUEST);
+        }
+        LocalDate from = fromDate != null ? fromDate : LocalDate.now();
+        return new ResponseEntity<>(scheduleService.getShowtimeTree(movieId, from, days), HttpStatus.OK);
+    }
+
+    // Số lịch chiếu và bộ nhớ ước lượng của chỉ mục lịch chiếu trong bộ nhớ
+    @GetMapping("/index-stats")
+    public ScheduleIndexStatsDTO getScheduleIndexStats() {
+        return scheduleService.getScheduleIndexStats();
+    }
+
+    // Cho người lập lịch kiểm tra trước 1 suất chiếu dự định có trùng giờ (tính cả thời gian dọn phòng)
+    // với các suất đã có trong phòng không, vd ?roomId=1&movieId=2&startDate=2021-01-05&startTime=09:00
+    @GetMapping("/room-conflicts")
+    public ResponseEntity<?> checkRoomConflicts(@RequestParam Integer roomId, @RequestParam Integer movieId,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime startTime) {
+        try {
+            RoomConflictDTO result = scheduleService.checkRoomConflicts(roomId, movieId, startDate, startTime);
+            return new ResponseEntity<>(result, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping
     public List<ScheduleDTO> getSchedules(@RequestParam Integer movieId,  @RequestParam Integer branchId,
                                           @RequestParam String startDate,@RequestParam String startTime,
@@ -1,10 +1,23 @@
 package com.example.cinema_back_end.apis;
 
+import com.example.cinema_back_end.dtos.BookingRequestDTO;
 import com.example.cinema_back_end.dtos.SeatDTO;
+import com.example.cinema_back_end.services.BookingRejectedException;
+import com.example.cinema_back_end.services.ISeatHoldService;
 import com.example.cinema_back_end.services.ISeatService;
+import com.example.cinema_back_end.services.SeatMapVersions;
+import com.example.cinema_back_end.services.SeatStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -13,9 +26,51 @@ import java.util.List;
 public class SeatApi {
     @Autowired
     private ISeatService seatService;
+    @Autowired
+    private ISeatHoldService seatHoldService;
+    @Autowired
+    private SeatMapVersions seatMapVersions;
+    @Autowired
+    private SeatStreamService seatStreamService;
 
+    // Client gửi lại ETag của lần trước, sơ đồ ghế chưa đổi thì trả 304 mà không đọc db
     @GetMapping
-    public List<SeatDTO> getSeatsByScheduleId(@RequestParam Integer scheduleId){
-        return seatService.getSeatsByScheduleId(scheduleId);
+    public ResponseEntity<List<SeatDTO>> getSeatsByScheduleId(@RequestParam Integer scheduleId,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        String eTag = seatMapVersions.getETag(scheduleId);
+        if (ifNoneMatch != null && Arrays.stream(ifNoneMatch.split(",")).map(String::trim).anyMatch(eTag::equals)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache())
+                .body(seatService.getSeatsByScheduleId(scheduleId));
+    }
+
+    // Trang chọn ghế nghe các thay đổi ghế của lịch chiếu để cập nhật mà không phải tải lại trang.
+    // Lịch không tồn tại => 404, quá số kết nối => 429 (EventSource không tự kết nối lại khi khác 200)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSeatChanges(@RequestParam Integer scheduleId, HttpServletRequest request){
+        try {
+            return ResponseEntity.ok(seatStreamService.subscribe(scheduleId, request.getRemoteAddr()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+
+    // Giữ ghế trong lúc khách xác nhận thanh toán, trả về leaseId để đặt vé
+    @PostMapping("/hold")
+    public ResponseEntity<?> holdSeats(@RequestBody BookingRequestDTO bookingRequestDTO){
+        try {
+            return new ResponseEntity<>(seatHoldService.holdSeats(bookingRequestDTO), HttpStatus.OK);
+        } catch (BookingRejectedException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.EXPECTATION_FAILED);
+        }
+    }
+
+    @DeleteMapping("/hold")
+    public ResponseEntity<Void> releaseHold(@RequestParam String leaseId, @RequestParam Integer userId){
+        seatHoldService.releaseHold(leaseId, userId);
+        return ResponseEntity.noContent().build();
     }
 }
@@ -9,4 +9,6 @@ public class BookingRequestDTO {
     private Integer userId;
     private Integer scheduleId;
     private List<Integer> listSeatIds;
+    // Nếu có thì đặt vé từ các ghế đang giữ của lượt giữ ghế này, bỏ qua listSeatIds
+    private String leaseId;
 }
@@ -0,0 +1,13 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class MovieFacetsDTO {
+    private List<MovieSummaryDTO> movies;
+    // Tên nhóm (categories, language, rated) -> giá trị -> số phim sẽ còn lại nếu chọn thêm giá trị đó
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,9 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+@Data
+public class MovieSuggestionDTO {
+    private int id;
+    private String name;
+}
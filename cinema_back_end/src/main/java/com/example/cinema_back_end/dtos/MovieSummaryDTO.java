@@ -0,0 +1,16 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Những gì lưới phim ở trang chủ cần, đủ nhỏ để mỗi trang trả về có kích thước cố định
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieSummaryDTO {
+    private int id;
+    private String name;
+    private String smallImageURl;
+    private String shortDescription;
+}
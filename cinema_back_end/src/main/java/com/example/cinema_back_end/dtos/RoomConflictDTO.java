@@ -0,0 +1,20 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class RoomConflictDTO {
+    private int roomId;
+    private int movieId;
+    // "yyyy-MM-ddTHH:mm"
+    private String startsAt;
+    private String endsAt;
+    // Phòng chỉ trống lại sau endsAt + cleaningMinutes
+    private int cleaningMinutes;
+    private boolean conflict;
+    // id các lịch chiếu trùng giờ, id âm là suất đang nhập chưa ghi db
+    private List<Integer> conflictingScheduleIds = new ArrayList<>();
+}
@@ -14,4 +14,5 @@ public class ScheduleDTO {
     private RoomDTO room;
     private MovieDTO movie;
     private Double price;
+    private Integer remainingSeats;
 }
@@ -0,0 +1,18 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ScheduleImportReportDTO {
+    // Số dòng dữ liệu đã đọc (không tính dòng tiêu đề / dòng trống)
+    private long totalRows;
+    private long importedRows;
+    private long rejectedRows;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    // Lý do của các dòng bị loại đầu tiên, vd "Dòng 12: Không tìm thấy phim: Ma Trận 5"
+    private List<String> rejections = new ArrayList<>();
+}
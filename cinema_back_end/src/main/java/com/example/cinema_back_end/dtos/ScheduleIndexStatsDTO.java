@@ -0,0 +1,12 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+@Data
+public class ScheduleIndexStatsDTO {
+    private int schedules;
+    private int branches;
+    private int rooms;
+    // Ước lượng bộ nhớ của các mảng chỉ mục
+    private long memoryBytes;
+}
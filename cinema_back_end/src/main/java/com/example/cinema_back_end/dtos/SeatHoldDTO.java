@@ -0,0 +1,15 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class SeatHoldDTO {
+    private String leaseId;
+    private Integer scheduleId;
+    private List<Integer> listSeatIds;
+    private long ttlSeconds;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,15 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Gốc của cây chọn suất chiếu: chi nhánh -> ngày -> giờ -> phòng
+@Data
+public class ShowtimeBranchDTO {
+    private int id;
+    private String name;
+    private String diaChi;
+    private List<ShowtimeDateDTO> dates = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ShowtimeDTO {
+    // HH:mm
+    private String time;
+    private List<ShowtimeRoomDTO> rooms = new ArrayList<>();
+}
@@ -0,0 +1,13 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ShowtimeDateDTO {
+    // yyyy-MM-dd
+    private String date;
+    private List<ShowtimeDTO> times = new ArrayList<>();
+}
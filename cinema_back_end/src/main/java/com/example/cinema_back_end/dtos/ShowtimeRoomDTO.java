@@ -0,0 +1,14 @@
+package com.example.cinema_back_end.dtos;
+
+import lombok.Data;
+
+// Lá của cây chọn suất chiếu: 1 lịch chiếu cụ thể, đủ để đi thẳng tới sơ đồ ghế
+@Data
+public class ShowtimeRoomDTO {
+    private int scheduleId;
+    private int roomId;
+    private String roomName;
+    private double price;
+    // Null nếu chưa tính (xem Schedule.remainingSeats)
+    private Integer remainingSeats;
+}
@@ -20,6 +20,9 @@ public class Schedule {
     private LocalDate startDate;
     private LocalTime startTime;
     private double price;
+    // Số ghế còn trống = số ghế của phòng - số vé đã bán, trừ dần trong transaction đặt vé.
+    // Null nghĩa là chưa tính, RemainingSeatsInitializer sẽ tính bù lúc app khởi động
+    private Integer remainingSeats;
     @ManyToOne
     @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(name = "movie_id", nullable = false)
@@ -7,11 +7,16 @@ import org.hibernate.annotations.OnDeleteAction;
 import javax.persistence.*;
 
 @Data
-@Table(name = "ticket")
+@Table(name = "ticket", uniqueConstraints = @UniqueConstraint(name = Ticket.UK_SCHEDULE_SEAT,
+        columnNames = {"schedule_id", "seat_id"}))
 @Entity
 public class Ticket {
+    // 1 ghế trong 1 lịch chiếu chỉ được bán 1 lần, db sẽ chặn nếu 2 lượt đặt cùng chen vào
+    public static final String UK_SCHEDULE_SEAT = "uk_ticket_schedule_seat";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_seq")
+    @SequenceGenerator(name = "ticket_seq", sequenceName = "ticket_seq", allocationSize = 50)
     private int id;
     private String qrImageURL;
     @ManyToOne
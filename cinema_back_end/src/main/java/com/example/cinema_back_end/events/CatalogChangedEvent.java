@@ -0,0 +1,17 @@
+package com.example.cinema_back_end.events;
+
+import lombok.Getter;
+
+// Bắn ra sau khi dữ liệu chỉ đọc của trang chủ / chọn rạp đổi: phim (sửa phim) hoặc lịch chiếu (thêm / nhập lịch chiếu)
+@Getter
+public class CatalogChangedEvent {
+    public enum Section {
+        MOVIES, SCHEDULES
+    }
+
+    private final Section section;
+
+    public CatalogChangedEvent(Section section) {
+        this.section = section;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.cinema_back_end.events;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// Bắn ra mỗi khi ghế của 1 lịch chiếu đổi trạng thái (giữ, trả, bán), sau khi thay đổi đã được ghi xong
+@Getter
+public class SeatsChangedEvent {
+    public enum Status {
+        HELD, RELEASED, BOOKED
+    }
+
+    private final Integer scheduleId;
+    private final List<Integer> seatIds;
+    private final Status status;
+
+    public SeatsChangedEvent(Integer scheduleId, List<Integer> seatIds, Status status) {
+        this.scheduleId = scheduleId;
+        this.seatIds = seatIds;
+        this.status = status;
+    }
+}
@@ -1,11 +1,27 @@
 package com.example.cinema_back_end.repositories;
 
+import com.example.cinema_back_end.dtos.MovieSummaryDTO;
 import com.example.cinema_back_end.entities.Movie;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface IMovieRepository extends JpaRepository<Movie, Integer> {
     List<Movie> findMoviesByIsShowingOrderByIdDesc(Integer isShowing);
     List<Movie> findMoviesByIsShowingAndNameContaining(Integer isShowing,String name);
-}
\ No newline at end of file
+
+    // Phân trang theo khoá: trang sau lấy các phim có id nhỏ hơn id cuối của trang trước (đi theo khoá chính,
+    // không OFFSET), chỉ select 4 cột cần cho lưới phim
+    @Query("SELECT new com.example.cinema_back_end.dtos.MovieSummaryDTO(m.id, m.name, m.smallImageURl, m.shortDescription) " +
+            "FROM Movie m WHERE m.isShowing = :isShowing AND m.id < :afterId ORDER BY m.id DESC")
+    List<MovieSummaryDTO> findMovieSummariesByIsShowing(@Param("isShowing") Integer isShowing,
+                                                        @Param("afterId") Integer afterId,
+                                                        Pageable pageable);
+
+    // Mỗi dòng là {id, tên, thời lượng (phút)}, bảng tra phim khi nhập lịch chiếu
+    @Query("SELECT m.id, m.name, m.duration FROM Movie m")
+    List<Object[]> getMovieDurations();
+}
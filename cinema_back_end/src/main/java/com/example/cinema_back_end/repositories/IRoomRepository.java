@@ -17,4 +17,8 @@ public interface IRoomRepository extends JpaRepository<Room, Integer> {
                                                   @Param("branchId") Integer branchId,
                                                   @Param("startDate") LocalDate startDate,
                                                   @Param("startTime") LocalTime startTime);
-}
\ No newline at end of file
+
+    // Mỗi dòng là {id phòng, tên phòng, id chi nhánh}, bảng tra phòng khi nhập lịch chiếu
+    @Query("SELECT r.id, r.name, r.branch.id FROM Room r")
+    List<Object[]> getRoomLookupRows();
+}
@@ -2,11 +2,13 @@ package com.example.cinema_back_end.repositories;
 
 import com.example.cinema_back_end.entities.Schedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface IScheduleRepository extends JpaRepository<Schedule, Integer> {
@@ -16,6 +18,48 @@ public interface IScheduleRepository extends JpaRepository<Schedule, Integer> {
             , @Param("branchId") Integer branchId
             , @Param("startDate") LocalDate startDate);
 
+    // Mỗi dòng là {ngày, giờ chiếu} trong khoảng ngày, 1 câu cho cả lịch nhiều ngày (quét 1 đoạn của index lịch chiếu)
+    @Query("SELECT DISTINCT s.startDate, s.startTime FROM Schedule s WHERE s.movie.id=:movieId AND " +
+            "s.branch.id = :branchId AND s.startDate BETWEEN :fromDate AND :toDate ORDER BY s.startDate, s.startTime")
+    List<Object[]> getStartTimesByMovie_IdAndBranch_IdAndStartDateBetween(@Param("movieId") Integer movieId,
+                                                                         @Param("branchId") Integer branchId,
+                                                                         @Param("fromDate") LocalDate fromDate,
+                                                                         @Param("toDate") LocalDate toDate);
+
+    // Lịch chiếu của 1 phim trong khoảng ngày, mỗi dòng là {id lịch, ngày, giờ, giá, số ghế còn trống, id chi nhánh,
+    // tên chi nhánh, địa chỉ, id phòng, tên phòng}, đã sắp theo chi nhánh -> ngày -> giờ -> phòng để dựng cây chọn suất chiếu
+    @Query("SELECT s.id, s.startDate, s.startTime, s.price, s.remainingSeats, b.id, b.name, b.diaChi, r.id, r.name " +
+            "FROM Schedule s JOIN s.branch b JOIN s.room r WHERE s.movie.id = :movieId " +
+            "AND s.startDate BETWEEN :fromDate AND :toDate ORDER BY b.id, s.startDate, s.startTime, r.id")
+    List<Object[]> getShowtimeRowsByMovie_IdAndStartDateBetween(@Param("movieId") Integer movieId,
+                                                                @Param("fromDate") LocalDate fromDate,
+                                                                @Param("toDate") LocalDate toDate);
+
+    // Các lịch chiếu từ fromDate, mỗi dòng là {id lịch, id phim, id chi nhánh, ngày, giờ, id phòng, số ghế còn trống}
+    // để dựng ScheduleIndex. Chỉ đọc cột của bảng schedule, không join
+    @Query("SELECT s.id, s.movie.id, s.branch.id, s.startDate, s.startTime, s.room.id, s.remainingSeats FROM Schedule s " +
+            "WHERE s.startDate >= :fromDate")
+    List<Object[]> getScheduleIndexRows(@Param("fromDate") LocalDate fromDate);
+
+    // Mỗi dòng là {id lịch, ngày, giờ, thời lượng phim} của các lịch chiếu trong phòng, để kiểm tra trùng giờ
+    @Query("SELECT s.id, s.startDate, s.startTime, s.movie.duration FROM Schedule s WHERE s.room.id = :roomId")
+    List<Object[]> getTimetableByRoom_Id(@Param("roomId") Integer roomId);
+
     List<Schedule> getSchedulesByMovie_IdAndBranch_IdAndStartDateAndStartTimeAndRoom_Id(Integer movieId,Integer branchId
     , LocalDate startDate,LocalTime startTime,Integer roomId);
+
+    @Query("SELECT s.room.id FROM Schedule s WHERE s.id = :scheduleId")
+    Integer getRoomIdById(@Param("scheduleId") Integer scheduleId);
+
+    // Các id trong scheduleIds của lịch chiếu chưa bắt đầu tính tới (today, now), id không còn trong db thì không có
+    @Query("SELECT s.id FROM Schedule s WHERE s.id IN :scheduleIds AND " +
+            "(s.startDate > :today OR (s.startDate = :today AND s.startTime > :now))")
+    List<Integer> getNotStartedScheduleIds(@Param("scheduleIds") Collection<Integer> scheduleIds,
+                                           @Param("today") LocalDate today,
+                                           @Param("now") LocalTime now);
+
+    // Trừ thẳng trên db trong transaction đặt vé, không đọc lên rồi ghi lại nên không bị mất lượt trừ khi đặt song song
+    @Modifying
+    @Query("UPDATE Schedule s SET s.remainingSeats = s.remainingSeats - :count WHERE s.id = :scheduleId")
+    int decrementRemainingSeats(@Param("scheduleId") Integer scheduleId, @Param("count") int count);
 }
\ No newline at end of file
@@ -2,9 +2,19 @@ package com.example.cinema_back_end.repositories;
 
 import com.example.cinema_back_end.entities.Seat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ISeatRepository extends JpaRepository<Seat, Integer> {
     List<Seat> getSeatByRoom_Id(Integer roomId);
-}
\ No newline at end of file
+
+    // Mỗi phần tử là {id, name}
+    @Query("SELECT s.id, s.name FROM Seat s WHERE s.room.id = :roomId ORDER BY s.id")
+    List<Object[]> getSeatLayoutByRoom_Id(@Param("roomId") Integer roomId);
+
+    // Mỗi dòng là {id phòng, số ghế}
+    @Query("SELECT s.room.id, COUNT(s) FROM Seat s GROUP BY s.room.id")
+    List<Object[]> countSeatsByRoom();
+}
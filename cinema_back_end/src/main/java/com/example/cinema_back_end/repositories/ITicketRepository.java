@@ -8,8 +8,15 @@ import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface ITicketRepository extends JpaRepository<Ticket, Integer> {
+    // Load cả graph vé -> bill -> user -> roles, đừng dùng cho sơ đồ ghế hay đếm ghế
     List<Ticket> findTicketsBySchedule_Id(Integer scheduleId);
     List<Ticket> findTicketsBySchedule_IdAndSeat_Id(Integer scheduleId,Integer seatId);
     @Query("SELECT t FROM Ticket t WHERE t.bill.id IN (SELECT b.id FROM Bill b WHERE b.user.id=:userId) ORDER BY t.id DESC")
     List<Ticket> findTicketsByUserId(@Param("userId") Integer userId);
-}
\ No newline at end of file
+
+    @Query("SELECT t.seat.id FROM Ticket t WHERE t.schedule.id = :scheduleId")
+    List<Integer> getSeatIdsBySchedule_Id(@Param("scheduleId") Integer scheduleId);
+
+    @Query("SELECT DISTINCT t.schedule.id FROM Ticket t")
+    List<Integer> getBookedScheduleIds();
+}
@@ -0,0 +1,39 @@
+package com.example.cinema_back_end.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+// Bill và Ticket lấy id theo block 50 từ bảng bill_seq / ticket_seq (MySQL không có sequence nên
+// Hibernate giả lập bằng bảng). Db cũ đang dùng auto increment nên phải đẩy giá trị của bảng
+// sequence vượt qua id lớn nhất hiện có, nếu không block id đầu tiên sẽ bị trùng khoá chính.
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceInitializer {
+    // Phải khớp với allocationSize trong @SequenceGenerator của entity
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        align("bill_seq", "bill");
+        align("ticket_seq", "ticket");
+    }
+
+    private void align(String sequenceTable, String entityTable) {
+        // Với optimizer pooled, giá trị đọc ra V sẽ cấp các id từ V - 49 tới V
+        Long minNextVal = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(id), 0) + " + ALLOCATION_SIZE + " FROM " + entityTable, Long.class);
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + sequenceTable, Integer.class);
+        if (rows == null || rows == 0) {
+            jdbcTemplate.update("INSERT INTO " + sequenceTable + " (next_val) VALUES (?)", minNextVal);
+        } else {
+            jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = GREATEST(next_val, ?)", minNextVal);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.cinema_back_end.repositories;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Cột remaining_seats mới thêm nên lịch chiếu cũ (hoặc lịch thêm thẳng vào db) đang null.
+// Tính bù 1 lần lúc khởi động bằng 1 câu UPDATE, sau đó chỉ còn đặt vé trừ dần.
+// Chạy sau ApplicationReadyEvent để dữ liệu demo (ghế, lịch chiếu) đã được thêm xong.
+@Component
+public class RemainingSeatsInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(RemainingSeatsInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Chạy trước các listener khác của ApplicationReadyEvent (vd ScheduleService dựng chỉ mục lịch chiếu có số ghế còn trống)
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfill() {
+        int updated = jdbcTemplate.update("UPDATE schedule s SET remaining_seats = "
+                + "(SELECT COUNT(*) FROM seat se WHERE se.room_id = s.room_id) - "
+                + "(SELECT COUNT(*) FROM ticket t WHERE t.schedule_id = s.id) "
+                + "WHERE s.remaining_seats IS NULL");
+        if (updated > 0) {
+            logger.info("Remaining seats backfilled for {} schedules", updated);
+        }
+    }
+}
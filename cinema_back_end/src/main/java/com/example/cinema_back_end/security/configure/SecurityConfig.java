@@ -3,6 +3,7 @@ package com.example.cinema_back_end.security.configure;
 import com.example.cinema_back_end.security.jwt.JwtAuthenticationFilter;
 import com.example.cinema_back_end.security.service.IUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -59,7 +60,11 @@ public class  SecurityConfig extends WebSecurityConfigurerAdapter {
         http.csrf().ignoringAntMatchers("/**");
         http.httpBasic().authenticationEntryPoint(restServicesEntryPoint());
         http.authorizeRequests()
-                .antMatchers("/", "/login","/api/movies/showing","/api/movies/showing/search","/register","/api/movies/details").permitAll()
+                .antMatchers("/", "/login","/api/movies/showing","/api/movies/showing/search","/api/movies/showing/suggest","/api/movies/showing/summaries",
+                        "/api/movies/showing/facets","/register","/api/movies/details",
+                        "/api/seats/stream").permitAll()
+                // Actuator chỉ chạy ở cổng quản trị và chỉ nghe trên localhost (management.server.*)
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
                 .antMatchers("/api/**").hasRole("CLIENT")
                 .anyRequest().authenticated()
                 .and().csrf().disable();
@@ -2,6 +2,7 @@ package com.example.cinema_back_end.services;
 
 import com.example.cinema_back_end.dtos.BookingRequestDTO;
 import com.example.cinema_back_end.entities.Bill;
+import com.example.cinema_back_end.events.SeatsChangedEvent;
 import com.example.cinema_back_end.entities.Schedule;
 import com.example.cinema_back_end.entities.Ticket;
 import com.example.cinema_back_end.entities.User;
@@ -10,9 +11,14 @@ import com.example.cinema_back_end.repositories.IScheduleRepository;
 import com.example.cinema_back_end.repositories.ISeatRepository;
 import com.example.cinema_back_end.repositories.ITicketRepository;
 import com.example.cinema_back_end.security.repo.IUserRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -20,6 +26,10 @@ import java.util.List;
 
 @Service
 public class BillService implements IBillService{
+    private static final String SEAT_TAKEN_MESSAGE = "Đã có người nhanh tay hơn đặt ghế, mời bạn chọn lại!";
+    private static final String INVALID_BOOKING_MESSAGE = "Thông tin đặt vé không hợp lệ!";
+    private static final String QR_IMAGE_URL = "https://scontent-sin6-2.xx.fbcdn.net/v/t1.15752-9/268794058_655331555823095_3657556108194277679_n.png?_nc_cat=105&ccb=1-5&_nc_sid=ae9488&_nc_ohc=BrNXGO8HufkAX_OGjWc&_nc_ht=scontent-sin6-2.xx&oh=03_AVK_zaJj7pziY9nLrVqoIQJAzbomu4KPgED1PxFFpYfCrQ&oe=61F778D8";
+
     @Autowired
     private IScheduleRepository scheduleRepository;
     @Autowired
@@ -30,37 +40,117 @@ public class BillService implements IBillService{
     private ISeatRepository seatRepository;
     @Autowired
     private IBillRepository billRepository;
+    @Autowired
+    private SeatInventory seatInventory;
+    @Autowired
+    private ISeatHoldService seatHoldService;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public void createNewBill(BookingRequestDTO bookingRequestDTO) throws RuntimeException {
+        //Thiếu id thì từ chối luôn, để getById(null) ném lỗi của Spring Data thì thành lỗi hệ thống
+        if (bookingRequestDTO.getScheduleId() == null) {
+            throw new BookingRejectedException("Lịch chiếu không tồn tại!");
+        }
+        if (bookingRequestDTO.getUserId() == null) {
+            throw new BookingRejectedException("Bạn cần đăng nhập để đặt vé!");
+        }
 
         //Lấy ra lịch
         Schedule schedule = scheduleRepository.getById(bookingRequestDTO.getScheduleId());
         //Lấy ra người dùng
         User user = userRepository.getById(bookingRequestDTO.getUserId());
 
+        //Nếu khách đã giữ ghế từ trước thì lấy đúng các ghế của lượt giữ đó, ghế đã nằm sẵn trong kho ghế.
+        //Nếu chưa thì giành ghế trong kho ghế ở bộ nhớ trước, có ghế đã bị giữ thì throw luôn mà không cần đụng tới db.
+        //Nếu transaction bị roll back thì ghế sẽ được trả lại kho
+        List<Integer> listSeatIds;
+        if(bookingRequestDTO.getLeaseId()!=null){
+            listSeatIds = seatHoldService.consumeHoldForCurrentTransaction(bookingRequestDTO.getLeaseId(),
+                    bookingRequestDTO.getUserId(),bookingRequestDTO.getScheduleId());
+        }else{
+            listSeatIds = bookingRequestDTO.getListSeatIds();
+            if(!seatInventory.claimForCurrentTransaction(bookingRequestDTO.getScheduleId(),listSeatIds)){
+                throw new BookingRejectedException(SEAT_TAKEN_MESSAGE);
+            }
+        }
+
+        saveTickets(bookingRequestDTO.getScheduleId(), createBillTickets(schedule, user, listSeatIds));
+        publishBookedAfterCommit(bookingRequestDTO.getScheduleId(), listSeatIds);
+    }
+
+    //Ghi 1 nhóm lượt đặt vé của cùng 1 lịch chiếu trong 1 transaction, ghế đã được giành sẵn trong kho ghế
+    @Override
+    @Transactional
+    public void saveBookings(Integer scheduleId, List<BookingRequestDTO> bookingRequestDTOs) throws RuntimeException {
+        Schedule schedule = scheduleRepository.getById(scheduleId);
+        List<Ticket> tickets = new ArrayList<>();
+        List<Integer> seatIds = new ArrayList<>();
+        bookingRequestDTOs.forEach(bookingRequestDTO -> {
+            tickets.addAll(createBillTickets(schedule,
+                    userRepository.getById(bookingRequestDTO.getUserId()), bookingRequestDTO.getListSeatIds()));
+            seatIds.addAll(bookingRequestDTO.getListSeatIds());
+        });
+        saveTickets(scheduleId, tickets);
+        publishBookedAfterCommit(scheduleId, seatIds);
+    }
+
+    //Chỉ báo ghế đã bán khi vé đã thực sự nằm trong db, nếu không người xem sơ đồ ghế có thể nhận bản cũ với version mới
+    private void publishBookedAfterCommit(Integer scheduleId, List<Integer> seatIds) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventPublisher.publishEvent(new SeatsChangedEvent(scheduleId, seatIds, SeatsChangedEvent.Status.BOOKED));
+            }
+        });
+    }
+
+    private List<Ticket> createBillTickets(Schedule schedule, User user, List<Integer> listSeatIds) {
         //Lưu Bill gồm thông tin người dùng xuống trước
         Bill billToCreate = new Bill();
         billToCreate.setUser(user);
         billToCreate.setCreatedTime(LocalDateTime.now());
         Bill createdBill = billRepository.save(billToCreate);
 
-        //Với mỗi ghế ngồi check xem đã có ai đặt chưa, nếu rồi thì throw, roll back luôn còn ko
-        //thì đóng gói các thông tin ghế và lịch vào vé và lưu xuống db
-        bookingRequestDTO.getListSeatIds().forEach(seatId->{
-            if(!ticketRepository.findTicketsBySchedule_IdAndSeat_Id(schedule.getId(),seatId)
-                    .isEmpty()){// Nếu đã có người đặt vé ghế đó ở lịch cụ thể đó thì
-                throw new RuntimeException("Đã có người nhanh tay hơn đặt ghế, mời bạn chọn lại!");
-            }
-            // đóng gói lịch, seat và bill vào từng vé rồi add vào list vé
+        //Đóng gói các thông tin ghế và lịch vào vé, list vé sẽ được lưu xuống db trong 1 batch.
+        //Ghế đã được kho ghế kiểm tra là thuộc phòng của lịch nên chỉ cần lấy reference, không phải select lại
+        List<Ticket> tickets = new ArrayList<>(listSeatIds.size());
+        listSeatIds.forEach(seatId->{
             Ticket ticket = new Ticket();
             ticket.setSchedule(schedule);
             ticket.setSeat(seatRepository.getById(seatId));
             ticket.setBill(createdBill);
-            ticket.setQrImageURL("https://scontent-sin6-2.xx.fbcdn.net/v/t1.15752-9/268794058_655331555823095_3657556108194277679_n.png?_nc_cat=105&ccb=1-5&_nc_sid=ae9488&_nc_ohc=BrNXGO8HufkAX_OGjWc&_nc_ht=scontent-sin6-2.xx&oh=03_AVK_zaJj7pziY9nLrVqoIQJAzbomu4KPgED1PxFFpYfCrQ&oe=61F778D8");
-            ticketRepository.save(ticket);
+            ticket.setQrImageURL(QR_IMAGE_URL);
+            tickets.add(ticket);
         });
+        return tickets;
+    }
+
+    //Insert luôn mà không check trước, nếu trùng ghế thì unique constraint (schedule_id, seat_id) sẽ chặn
+    private void saveTickets(Integer scheduleId, List<Ticket> tickets) {
+        try {
+            ticketRepository.saveAllAndFlush(tickets);
+            //Trừ số ghế còn trống trong cùng transaction, roll back thì số ghế cũng được trả lại
+            scheduleRepository.decrementRemainingSeats(scheduleId, tickets.size());
+        } catch (DataIntegrityViolationException e) {
+            if (isSeatTakenViolation(e)) {
+                // Kho ghế trong bộ nhớ không biết ghế này đã bán => gộp các ghế đã bán trong db vào kho
+                seatInventory.reconcileAfterCurrentTransaction(scheduleId);
+                throw new BookingRejectedException(SEAT_TAKEN_MESSAGE);
+            }
+            //Vi phạm ràng buộc khác (vd khoá ngoại tới user không tồn tại): gửi lại y hệt vẫn lỗi => từ chối
+            throw new BookingRejectedException(INVALID_BOOKING_MESSAGE);
+        }
+    }
 
+    // MySQL 8 báo tên khoá kèm tên bảng, vd 'ticket.uk_ticket_schedule_seat'
+    private boolean isSeatTakenViolation(DataIntegrityViolationException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        String constraintName = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraintName != null && constraintName.toLowerCase().endsWith(Ticket.UK_SCHEDULE_SEAT);
     }
 }
@@ -0,0 +1,58 @@
+package com.example.cinema_back_end.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+// Nhật ký các lượt bán vé gần nhất (lịch chiếu, số ghế), đánh version tăng dần theo thứ tự ghi nhận sau commit.
+// Bản sao số ghế còn trống trong bộ nhớ (cây suất chiếu, chỉ mục lịch chiếu) nhớ version của nhật ký lúc bắt đầu
+// đọc db rồi chỉ áp các lượt sau version đó: lượt đã commit trước khi đọc không bị trừ 2 lần, lượt commit trong
+// lúc đang đọc / dựng không bị mất.
+// Chỉ giữ max-entries lượt cuối trong mảng vòng, bản sao bị tụt quá xa thì phải đọc lại từ db.
+@Component
+public class BookedSeatsJournal {
+    @Value("${cinema.booked-seats-journal.max-entries:10000}")
+    private int maxEntries;
+
+    // Lượt có version v nằm ở ô v % maxEntries
+    private int[] scheduleIds;
+    private int[] counts;
+    private long version;
+
+    public interface Consumer {
+        void accept(int scheduleId, int count);
+    }
+
+    @PostConstruct
+    public void createEntries() {
+        scheduleIds = new int[maxEntries];
+        counts = new int[maxEntries];
+    }
+
+    // Lấy trước khi đọc số ghế còn trống từ db
+    public synchronized long currentVersion() {
+        return version;
+    }
+
+    // Gọi sau khi lượt bán đã commit
+    public synchronized long record(int scheduleId, int count) {
+        version++;
+        int slot = (int) (version % maxEntries);
+        scheduleIds[slot] = scheduleId;
+        counts[slot] = count;
+        return version;
+    }
+
+    // Áp các lượt sau fromVersion theo thứ tự, trả version cuối đã áp; -1 nếu nhật ký không còn giữ đủ các lượt đó
+    public synchronized long replay(long fromVersion, Consumer consumer) {
+        if (version - fromVersion > maxEntries) {
+            return -1;
+        }
+        for (long v = fromVersion + 1; v <= version; v++) {
+            int slot = (int) (v % maxEntries);
+            consumer.accept(scheduleIds[slot], counts[slot]);
+        }
+        return version;
+    }
+}
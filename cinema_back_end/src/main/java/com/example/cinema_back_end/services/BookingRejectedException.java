@@ -0,0 +1,10 @@
+package com.example.cinema_back_end.services;
+
+// Đặt / giữ ghế bị từ chối vì lý do nghiệp vụ (ghế đã có người, ghế / lịch chiếu không hợp lệ, hết hạn giữ ghế...).
+// Là kết quả cuối cùng của yêu cầu: gửi lại y hệt vẫn bị từ chối. Lỗi db / hệ thống thì không dùng lớp này vì
+// gửi lại có thể thành công
+public class BookingRejectedException extends RuntimeException {
+    public BookingRejectedException(String message) {
+        super(message);
+    }
+}
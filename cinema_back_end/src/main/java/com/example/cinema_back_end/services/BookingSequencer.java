@@ -0,0 +1,153 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.dtos.BookingRequestDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Đặt vé tuần tự cho các lịch chiếu "nóng": mọi lượt đặt của 1 lịch chiếu được xếp vào 1 hàng đợi vòng
+// có giới hạn, 1 luồng ghi duy nhất xét trùng ghế lần lượt trong bộ nhớ rồi ghi cả nhóm trong 1 transaction.
+// Các lượt đặt không còn tranh nhau khoá cùng các dòng trong db nữa.
+@Component
+public class BookingSequencer {
+    private static final Logger logger = LoggerFactory.getLogger(BookingSequencer.class);
+    private static final String SEAT_TAKEN_MESSAGE = "Đã có người nhanh tay hơn đặt ghế, mời bạn chọn lại!";
+
+    @Autowired
+    private SeatInventory seatInventory;
+    @Autowired
+    private IBillService billService;
+
+    // Danh sách id lịch chiếu cách nhau bởi dấu phẩy, để trống thì tắt chế độ này
+    @Value("${cinema.booking.sequenced-schedules:}")
+    private Set<Integer> sequencedScheduleIds;
+    @Value("${cinema.booking.sequencer.capacity:1024}")
+    private int capacity;
+    @Value("${cinema.booking.sequencer.max-batch:64}")
+    private int maxBatch;
+
+    private final ConcurrentHashMap<Integer, Lane> lanes = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    public boolean isSequenced(Integer scheduleId) {
+        return scheduleId != null && sequencedScheduleIds.contains(scheduleId);
+    }
+
+    public CompletableFuture<Void> submit(BookingRequestDTO bookingRequestDTO) {
+        PendingBooking booking = new PendingBooking(bookingRequestDTO);
+        if (bookingRequestDTO.getScheduleId() == null) {
+            booking.result.completeExceptionally(new BookingRejectedException("Lịch chiếu không tồn tại!"));
+            return booking.result;
+        }
+        Lane lane = lanes.computeIfAbsent(bookingRequestDTO.getScheduleId(), Lane::new);
+        // Hàng đợi đầy thì từ chối luôn thay vì để request treo
+        if (!running || !lane.queue.offer(booking)) {
+            booking.result.completeExceptionally(new RuntimeException("Hệ thống đang quá tải, mời bạn thử lại sau!"));
+        }
+        return booking.result;
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        lanes.values().forEach(lane -> lane.writer.interrupt());
+    }
+
+    private void runWriter(Lane lane) {
+        List<PendingBooking> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(lane.queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            lane.queue.drainTo(batch, maxBatch - 1);
+            try {
+                process(lane.scheduleId, batch);
+            } catch (RuntimeException e) {
+                logger.error("Booking sequencer failed for schedule {}", lane.scheduleId, e);
+                batch.forEach(booking -> booking.result.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+        lane.queue.drainTo(batch);
+        batch.forEach(booking -> booking.result.completeExceptionally(new RuntimeException("Hệ thống đang tắt, mời bạn thử lại sau!")));
+    }
+
+    private void process(Integer scheduleId, List<PendingBooking> batch) {
+        // Xét trùng ghế lần lượt theo thứ tự vào hàng đợi, chỉ luồng này giành ghế cho lịch chiếu nên không phải tranh nhau
+        List<PendingBooking> accepted = new ArrayList<>(batch.size());
+        for (PendingBooking booking : batch) {
+            try {
+                if (booking.request.getUserId() == null) {
+                    throw new BookingRejectedException("Bạn cần đăng nhập để đặt vé!");
+                }
+                if (!seatInventory.claim(scheduleId, booking.request.getListSeatIds())) {
+                    throw new BookingRejectedException(SEAT_TAKEN_MESSAGE);
+                }
+                accepted.add(booking);
+            } catch (RuntimeException e) {
+                booking.result.completeExceptionally(e);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            billService.saveBookings(scheduleId, accepted.stream().map(booking -> booking.request).collect(Collectors.toList()));
+            accepted.forEach(booking -> {
+                seatInventory.confirm(scheduleId);
+                booking.result.complete(null);
+            });
+        } catch (RuntimeException e) {
+            // 1 lượt hỏng làm cả nhóm roll back => ghi lại từng lượt để chỉ lượt hỏng bị từ chối
+            accepted.forEach(booking -> saveAlone(scheduleId, booking));
+        }
+    }
+
+    private void saveAlone(Integer scheduleId, PendingBooking booking) {
+        try {
+            billService.saveBookings(scheduleId, Collections.singletonList(booking.request));
+            seatInventory.confirm(scheduleId);
+            booking.result.complete(null);
+        } catch (RuntimeException e) {
+            seatInventory.release(scheduleId, booking.request.getListSeatIds());
+            booking.result.completeExceptionally(e);
+        }
+    }
+
+    private class Lane {
+        private final Integer scheduleId;
+        private final ArrayBlockingQueue<PendingBooking> queue = new ArrayBlockingQueue<>(capacity);
+        private final Thread writer;
+
+        Lane(Integer scheduleId) {
+            this.scheduleId = scheduleId;
+            this.writer = new Thread(() -> runWriter(this), "booking-sequencer-" + scheduleId);
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+    }
+
+    private static class PendingBooking {
+        private final BookingRequestDTO request;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        PendingBooking(BookingRequestDTO request) {
+            this.request = request;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.example.cinema_back_end.services;
 
 import com.example.cinema_back_end.dtos.BookingRequestDTO;
 
+import java.util.List;
+
 public interface IBillService {
     void createNewBill(BookingRequestDTO bookingRequestDTO) throws RuntimeException;
+    void saveBookings(Integer scheduleId, List<BookingRequestDTO> bookingRequestDTOs) throws RuntimeException;
 }
@@ -2,13 +2,21 @@ package com.example.cinema_back_end.services;
 
 
 import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.dtos.MovieFacetsDTO;
+import com.example.cinema_back_end.dtos.MovieSuggestionDTO;
+import com.example.cinema_back_end.dtos.MovieSummaryDTO;
 import com.example.cinema_back_end.entities.Movie;
 
 
 import java.util.List;
+import java.util.Map;
 
 public interface IMovieService {
     List<MovieDTO> findAllShowingMovies();
+    List<MovieSummaryDTO> findShowingMovieSummaries(Integer afterId, int limit);
     MovieDTO getById(Integer movieId);
     List<MovieDTO> findAllShowingMoviesByName(String name);
+    List<MovieSuggestionDTO> suggestShowingMovies(String prefix, int limit);
+    MovieFacetsDTO filterShowingMovies(Map<String, List<String>> selectedFacets);
+    void saveMovie(Movie movie);
 }
@@ -0,0 +1,13 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.dtos.ScheduleImportReportDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IScheduleImportService {
+    String CSV = "csv";
+    String JSON_LINES = "jsonl";
+
+    ScheduleImportReportDTO importSchedules(InputStream input, String format) throws IOException;
+}
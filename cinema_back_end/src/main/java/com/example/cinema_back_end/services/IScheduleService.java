@@ -1,13 +1,21 @@
                                                                                                     package com.example.cinema_back_end.services;
 
+import com.example.cinema_back_end.dtos.RoomConflictDTO;
 import com.example.cinema_back_end.dtos.ScheduleDTO;
+import com.example.cinema_back_end.dtos.ScheduleIndexStatsDTO;
+import com.example.cinema_back_end.dtos.ShowtimeBranchDTO;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 public interface IScheduleService {
     List<String> getStartTimes(Integer movieId, Integer branchId, LocalDate startDate);
+    Map<String, List<String>> getStartTimeCalendar(Integer movieId, Integer branchId, LocalDate fromDate, int days);
+    List<ShowtimeBranchDTO> getShowtimeTree(Integer movieId, LocalDate fromDate, int days);
+    ScheduleIndexStatsDTO getScheduleIndexStats();
+    RoomConflictDTO checkRoomConflicts(Integer roomId, Integer movieId, LocalDate startDate, LocalTime startTime);
     List<ScheduleDTO> getSchedules(Integer movieId,Integer branchId,String startDate, String startTime,
                                    Integer roomId);
 }
@@ -0,0 +1,14 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.dtos.BookingRequestDTO;
+import com.example.cinema_back_end.dtos.SeatHoldDTO;
+
+import java.util.List;
+import java.util.Set;
+
+public interface ISeatHoldService {
+    SeatHoldDTO holdSeats(BookingRequestDTO bookingRequestDTO) throws RuntimeException;
+    void releaseHold(String leaseId, Integer userId);
+    List<Integer> consumeHoldForCurrentTransaction(String leaseId, Integer userId, Integer scheduleId) throws RuntimeException;
+    Set<Integer> getHeldSeatIds(Integer scheduleId);
+}
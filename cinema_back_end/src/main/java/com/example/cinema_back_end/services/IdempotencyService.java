@@ -0,0 +1,72 @@
+package com.example.cinema_back_end.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Ghi nhớ kết quả của các request gần đây theo idempotency key (giới hạn số key, tự xoá sau 1 khoảng thời gian).
+// Request lặp lại trả luôn kết quả cũ, request lặp lại khi request đầu chưa xong thì chờ chung kết quả đó.
+@Service
+public class IdempotencyService {
+    @Value("${cinema.idempotency.ttl-minutes:10}")
+    private long ttlMinutes;
+    @Value("${cinema.idempotency.max-keys:100000}")
+    private long maxKeys;
+
+    private Cache<String, Outcome> outcomes;
+
+    @PostConstruct
+    public void createCache() {
+        outcomes = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    // fingerprint là nội dung request, cùng key mà khác nội dung thì không được dùng lại kết quả cũ
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String key, Object fingerprint, Supplier<CompletableFuture<T>> action) throws RuntimeException {
+        Outcome outcome = new Outcome(fingerprint);
+        Outcome previous = outcomes.asMap().putIfAbsent(key, outcome);
+        if (previous != null) {
+            if (!Objects.equals(previous.fingerprint, fingerprint)) {
+                throw new RuntimeException("Idempotency-Key đã được dùng cho 1 yêu cầu khác!");
+            }
+            return (CompletableFuture<T>) previous.result;
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        // Chỉ ghi nhớ kết quả cuối cùng (action trả future thành công, kể cả khi là câu từ chối). Future lỗi là lỗi
+        // tạm thời (db, quá tải...) => bỏ key để lần gửi lại được chạy lại
+        result.whenComplete((value, e) -> {
+            if (e != null) {
+                outcomes.asMap().remove(key, outcome);
+                outcome.result.completeExceptionally(e);
+            } else {
+                outcome.result.complete(value);
+            }
+        });
+        return (CompletableFuture<T>) outcome.result;
+    }
+
+    private static class Outcome {
+        private final Object fingerprint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Outcome(Object fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.dtos.MovieFacetsDTO;
+import com.example.cinema_back_end.dtos.MovieSummaryDTO;
+import com.example.cinema_back_end.utils.VietnameseFolding;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Lọc phim đang chiếu theo thể loại, ngôn ngữ, độ tuổi bằng bitmap: mỗi phim có 1 vị trí cố định (slot),
+// mỗi giá trị có 1 bitset đánh dấu các slot có giá trị đó. Trong 1 nhóm chọn nhiều giá trị là OR, giữa các nhóm là AND.
+@Component
+public class MovieFacetIndex {
+    public static final String CATEGORIES = "categories";
+    public static final String LANGUAGE = "language";
+    public static final String RATED = "rated";
+    private static final List<String> FACETS = List.of(CATEGORIES, LANGUAGE, RATED);
+
+    private final Map<Integer, Integer> slotsByMovieId = new HashMap<>();
+    private final List<MovieSummaryDTO> moviesBySlot = new ArrayList<>();
+    // Slot của phim đã bỏ được dùng lại để các bitset không dài ra mãi
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet liveSlots = new BitSet();
+    // Tên nhóm -> giá trị đã bỏ dấu -> bitset
+    private final Map<String, Map<String, FacetValue>> facets = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MovieFacetIndex() {
+        FACETS.forEach(facet -> facets.put(facet, new HashMap<>()));
+    }
+
+    public void rebuild(Collection<MovieDTO> movies) {
+        lock.writeLock().lock();
+        try {
+            slotsByMovieId.clear();
+            moviesBySlot.clear();
+            freeSlots.clear();
+            liveSlots.clear();
+            facets.values().forEach(Map::clear);
+            movies.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Phim vừa sửa giữ nguyên slot cũ, chỉ xoá bit ở các giá trị cũ rồi bật bit ở các giá trị mới
+    public void put(MovieDTO movie) {
+        lock.writeLock().lock();
+        try {
+            remove(movie.getId());
+            add(movie);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(int movieId) {
+        lock.writeLock().lock();
+        try {
+            remove(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // selected: tên nhóm -> các giá trị được chọn. Nhóm không chọn gì thì không lọc theo nhóm đó.
+    // Số đếm của 1 nhóm tính theo bộ lọc của các nhóm còn lại, để biết chọn thêm giá trị đó thì còn bao nhiêu phim
+    public MovieFacetsDTO filter(Map<String, List<String>> selected) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> masks = new HashMap<>();
+            for (String facet : FACETS) {
+                List<String> values = selected.get(facet);
+                if (values != null && !values.isEmpty()) {
+                    masks.put(facet, union(facet, values));
+                }
+            }
+
+            BitSet matched = (BitSet) liveSlots.clone();
+            masks.values().forEach(matched::and);
+            List<MovieSummaryDTO> movies = new ArrayList<>(matched.cardinality());
+            for (int slot = matched.nextSetBit(0); slot >= 0; slot = matched.nextSetBit(slot + 1)) {
+                movies.add(moviesBySlot.get(slot));
+            }
+            movies.sort(Comparator.comparingInt(MovieSummaryDTO::getId).reversed());
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet others = (BitSet) liveSlots.clone();
+                masks.forEach((otherFacet, mask) -> {
+                    if (!otherFacet.equals(facet)) {
+                        others.and(mask);
+                    }
+                });
+                // Sắp theo tên hiển thị cho dễ đọc
+                Map<String, Integer> facetCounts = new TreeMap<>();
+                for (FacetValue value : facets.get(facet).values()) {
+                    BitSet bits = (BitSet) value.bits.clone();
+                    bits.and(others);
+                    facetCounts.put(value.label, bits.cardinality());
+                }
+                counts.put(facet, facetCounts);
+            }
+
+            MovieFacetsDTO movieFacetsDTO = new MovieFacetsDTO();
+            movieFacetsDTO.setMovies(movies);
+            movieFacetsDTO.setFacets(counts);
+            return movieFacetsDTO;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet union(String facet, List<String> values) {
+        BitSet mask = new BitSet();
+        for (String value : values) {
+            FacetValue facetValue = facets.get(facet).get(VietnameseFolding.fold(value));
+            if (facetValue != null) {
+                mask.or(facetValue.bits);
+            }
+        }
+        return mask;
+    }
+
+    private void add(MovieDTO movie) {
+        int slot = freeSlots.isEmpty() ? moviesBySlot.size() : freeSlots.pop();
+        MovieSummaryDTO summary = new MovieSummaryDTO(movie.getId(), movie.getName(),
+                movie.getSmallImageURl(), movie.getShortDescription());
+        if (slot == moviesBySlot.size()) {
+            moviesBySlot.add(summary);
+        } else {
+            moviesBySlot.set(slot, summary);
+        }
+        slotsByMovieId.put(movie.getId(), slot);
+        liveSlots.set(slot);
+        valuesOf(movie).forEach((facet, labels) -> labels.forEach(label -> facets.get(facet)
+                .computeIfAbsent(VietnameseFolding.fold(label), key -> new FacetValue(label))
+                .bits.set(slot)));
+    }
+
+    private void remove(int movieId) {
+        Integer slot = slotsByMovieId.remove(movieId);
+        if (slot == null) {
+            return;
+        }
+        liveSlots.clear(slot);
+        moviesBySlot.set(slot, null);
+        freeSlots.push(slot);
+        // Giá trị không còn phim nào thì bỏ luôn để không hiện số đếm 0
+        facets.values().forEach(values -> values.values().removeIf(value -> {
+            value.bits.clear(slot);
+            return value.bits.isEmpty();
+        }));
+    }
+
+    // Thể loại là chuỗi cách nhau bởi dấu phẩy, vd "Hành Động, Phiêu Lưu"; ngôn ngữ và độ tuổi là 1 giá trị
+    private static Map<String, Set<String>> valuesOf(MovieDTO movie) {
+        Map<String, Set<String>> values = new HashMap<>();
+        values.put(CATEGORIES, split(movie.getCategories()));
+        values.put(LANGUAGE, single(movie.getLanguage()));
+        values.put(RATED, single(movie.getRated()));
+        return values;
+    }
+
+    private static Set<String> split(String text) {
+        Set<String> labels = new LinkedHashSet<>();
+        if (text != null) {
+            for (String label : text.split(",")) {
+                labels.addAll(single(label));
+            }
+        }
+        return labels;
+    }
+
+    private static Set<String> single(String text) {
+        Set<String> labels = new LinkedHashSet<>();
+        if (text != null && !VietnameseFolding.fold(text).isEmpty()) {
+            labels.add(text.trim());
+        }
+        return labels;
+    }
+
+    private static class FacetValue {
+        // Nhãn hiển thị lấy theo phim đầu tiên có giá trị này
+        private final String label;
+        private final BitSet bits = new BitSet();
+
+        FacetValue(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.dtos.MovieSuggestionDTO;
+import com.example.cinema_back_end.utils.VietnameseFolding;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Chỉ mục n-gram trong bộ nhớ cho phim đang chiếu, tìm theo tên, đạo diễn, diễn viên, thể loại, không phân biệt dấu.
+// Mỗi từ được đánh chỉ mục bằng các trigram của " từ " và bigram đầu từ, tìm kiếm chỉ duyệt
+// danh sách phim của các gram trong từ khoá nên không phụ thuộc số phim trong db và không đụng tới db.
+@Component
+public class MovieSearchIndex {
+    // Trọng số khi từ khoá khớp ở tên, đạo diễn, diễn viên, thể loại
+    private static final int[] FIELD_WEIGHTS = {8, 2, 2, 1};
+
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final Map<String, Set<Integer>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Mảng đã sắp xếp cho gợi ý theo tiền tố, dựng lại sau mỗi lần ghi (phim chỉ đổi vài lần 1 ngày)
+    // để lúc gõ phím chỉ cần đọc 1 tham chiếu, không cần lock
+    private volatile SuggestArrays suggestArrays = SuggestArrays.build(new ArrayList<>());
+
+    // Dựng lại toàn bộ chỉ mục (lúc khởi động)
+    public void rebuild(Collection<MovieDTO> movies) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            movies.forEach(this::add);
+            refreshSuggestArrays();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Thêm hoặc thay phim vừa sửa, chỉ đụng tới các gram của phim đó
+    public void put(MovieDTO movie) {
+        lock.writeLock().lock();
+        try {
+            remove(movie.getId());
+            add(movie);
+            refreshSuggestArrays();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(int movieId) {
+        lock.writeLock().lock();
+        try {
+            remove(movieId);
+            refreshSuggestArrays();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Mọi từ trong từ khoá phải khớp ở ít nhất 1 trường; xếp theo điểm rồi tới phim mới nhất
+    public List<MovieDTO> search(String keyword) {
+        String query = VietnameseFolding.fold(keyword);
+        lock.readLock().lock();
+        try {
+            if (query.isEmpty()) {
+                // Giống LIKE '%%': trả về tất cả phim đang chiếu
+                return documents.values().stream()
+                        .sorted(Comparator.comparingInt((Document document) -> document.movie.getId()).reversed())
+                        .map(document -> document.movie)
+                        .collect(Collectors.toList());
+            }
+            String[] words = query.split(" ");
+            Set<Integer> candidates = candidatesOf(words);
+
+            // Gram khớp chưa chắc cả từ khớp (vd các gram nằm ở các từ khác nhau) nên kiểm tra lại từng ứng viên
+            List<Match> matches = new ArrayList<>();
+            for (Integer movieId : candidates) {
+                Document document = documents.get(movieId);
+                int score = document.score(words, query);
+                if (score > 0) {
+                    matches.add(new Match(document.movie, score));
+                }
+            }
+            matches.sort(Comparator.comparingInt((Match match) -> match.score)
+                    .thenComparingInt(match -> match.movie.getId())
+                    .reversed());
+            return matches.stream().map(match -> match.movie).collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Tối đa limit phim có tên bắt đầu bằng tiền tố trước, sau đó tới phim có 1 từ trong tên bắt đầu bằng tiền tố.
+    // Mỗi nhóm là 1 lần tìm nhị phân rồi đọc liên tiếp tối đa limit phần tử: O(log n + limit)
+    public List<MovieSuggestionDTO> suggest(String prefix, int limit) {
+        String folded = VietnameseFolding.fold(prefix);
+        List<MovieSuggestionDTO> suggestions = new ArrayList<>();
+        if (folded.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        SuggestArrays arrays = suggestArrays;
+        Set<Integer> added = new HashSet<>();
+        arrays.titles.collect(folded, limit, added, suggestions);
+        arrays.words.collect(folded, limit, added, suggestions);
+        return suggestions;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void refreshSuggestArrays() {
+        suggestArrays = SuggestArrays.build(documents.values());
+    }
+
+    private void add(MovieDTO movie) {
+        Document document = new Document(movie);
+        documents.put(movie.getId(), document);
+        document.grams.forEach(gram -> postings.computeIfAbsent(gram, g -> new HashSet<>()).add(movie.getId()));
+    }
+
+    private void remove(int movieId) {
+        Document document = documents.remove(movieId);
+        if (document == null) {
+            return;
+        }
+        document.grams.forEach(gram -> {
+            Set<Integer> movieIds = postings.get(gram);
+            if (movieIds != null && movieIds.remove(movieId) && movieIds.isEmpty()) {
+                postings.remove(gram);
+            }
+        });
+    }
+
+    // Phim chứa mọi gram của mọi từ. Từ ngắn hơn 3 ký tự chỉ tìm theo đầu từ, từ dài hơn tìm ở bất kỳ đâu trong từ
+    private Set<Integer> candidatesOf(String[] words) {
+        List<Set<Integer>> lists = new ArrayList<>();
+        for (String word : words) {
+            if (word.length() < 3) {
+                lists.add(postings.get(" " + word));
+            } else {
+                for (int i = 0; i + 3 <= word.length(); i++) {
+                    lists.add(postings.get(word.substring(i, i + 3)));
+                }
+            }
+        }
+        if (lists.contains(null)) {
+            return new HashSet<>();
+        }
+        // Chỉ copy danh sách ngắn nhất rồi lọc dần, chi phí theo danh sách ngắn nhất chứ không theo số phim
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Integer> candidates = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(lists.get(i));
+        }
+        return candidates;
+    }
+
+    private static Set<String> gramsOf(String folded) {
+        Set<String> grams = new HashSet<>();
+        for (String word : folded.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = " " + word + " ";
+            grams.add(padded.substring(0, 2));
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static class Document {
+        private final MovieDTO movie;
+        // Tên, đạo diễn, diễn viên, thể loại đã bỏ dấu, có dấu cách ở đầu để kiểm tra khớp đầu từ
+        private final String[] fields;
+        private final Set<String> grams = new HashSet<>();
+
+        Document(MovieDTO movie) {
+            this.movie = movie;
+            String[] values = {movie.getName(), movie.getDirector(), movie.getActors(), movie.getCategories()};
+            this.fields = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                String folded = VietnameseFolding.fold(values[i]);
+                fields[i] = " " + folded;
+                grams.addAll(gramsOf(folded));
+            }
+        }
+
+        int score(String[] words, String query) {
+            int score = 0;
+            for (String word : words) {
+                int best = 0;
+                for (int i = 0; i < fields.length; i++) {
+                    if (matches(fields[i], word)) {
+                        best = Math.max(best, FIELD_WEIGHTS[i]);
+                    }
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                score += best;
+            }
+            // Tên phim trùng / bắt đầu bằng / chứa nguyên cụm từ khoá thì đưa lên đầu
+            String name = fields[0];
+            if (name.equals(" " + query)) {
+                score += 16;
+            } else if (name.startsWith(" " + query)) {
+                score += 8;
+            } else if (name.contains(query)) {
+                score += 4;
+            }
+            return score;
+        }
+
+        private static boolean matches(String field, String word) {
+            return word.length() < 3 ? field.contains(" " + word) : field.contains(word);
+        }
+    }
+
+    private static class Match {
+        private final MovieDTO movie;
+        private final int score;
+
+        Match(MovieDTO movie, int score) {
+            this.movie = movie;
+            this.score = score;
+        }
+    }
+
+    private static class SuggestArrays {
+        // Tên phim đã bỏ dấu
+        private final SortedKeys titles;
+        // Phần tên phim tính từ từ thứ 2 trở đi, vd "nhen khong con nha" của "nguoi nhen khong con nha"
+        private final SortedKeys words;
+
+        private SuggestArrays(SortedKeys titles, SortedKeys words) {
+            this.titles = titles;
+            this.words = words;
+        }
+
+        static SuggestArrays build(Collection<Document> documents) {
+            List<Object[]> titleEntries = new ArrayList<>();
+            List<Object[]> wordEntries = new ArrayList<>();
+            for (Document document : documents) {
+                MovieSuggestionDTO suggestion = new MovieSuggestionDTO();
+                suggestion.setId(document.movie.getId());
+                suggestion.setName(document.movie.getName());
+                String title = document.fields[0].substring(1);
+                if (title.isEmpty()) {
+                    continue;
+                }
+                titleEntries.add(new Object[]{title, suggestion});
+                for (int i = title.indexOf(' '); i >= 0; i = title.indexOf(' ', i + 1)) {
+                    wordEntries.add(new Object[]{title.substring(i + 1), suggestion});
+                }
+            }
+            return new SuggestArrays(SortedKeys.of(titleEntries), SortedKeys.of(wordEntries));
+        }
+    }
+
+    private static class SortedKeys {
+        private final String[] keys;
+        private final MovieSuggestionDTO[] values;
+
+        private SortedKeys(String[] keys, MovieSuggestionDTO[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        static SortedKeys of(List<Object[]> entries) {
+            entries.sort(Comparator.comparing(entry -> (String) entry[0]));
+            String[] keys = new String[entries.size()];
+            MovieSuggestionDTO[] values = new MovieSuggestionDTO[entries.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = (String) entries.get(i)[0];
+                values[i] = (MovieSuggestionDTO) entries.get(i)[1];
+            }
+            return new SortedKeys(keys, values);
+        }
+
+        void collect(String prefix, int limit, Set<Integer> added, List<MovieSuggestionDTO> suggestions) {
+            int index = Arrays.binarySearch(keys, prefix);
+            // Không có key trùng khớp thì binarySearch trả về -(vị trí chèn) - 1, các key có tiền tố bắt đầu từ đó
+            index = index < 0 ? -index - 1 : index;
+            // Các key trùng nhau có thể nằm trước vị trí binarySearch tìm được
+            while (index > 0 && keys[index - 1].equals(prefix)) {
+                index--;
+            }
+            for (; index < keys.length && suggestions.size() < limit && keys[index].startsWith(prefix); index++) {
+                if (added.add(values[index].getId())) {
+                    suggestions.add(values[index]);
+                }
+            }
+        }
+    }
+}
@@ -1,29 +1,107 @@
 package com.example.cinema_back_end.services;
 
 import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.dtos.MovieFacetsDTO;
+import com.example.cinema_back_end.dtos.MovieSuggestionDTO;
+import com.example.cinema_back_end.dtos.MovieSummaryDTO;
 import com.example.cinema_back_end.entities.Movie;
+import com.example.cinema_back_end.events.CatalogChangedEvent;
 import com.example.cinema_back_end.repositories.IMovieRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
 public class MovieService implements IMovieService{
+    private static final int SHOWING = 1;
 
     @Autowired
     private IMovieRepository  movieRepository;
 
     @Autowired
     private ModelMapper modelMapper;
+
+    @Autowired
+    private MovieSearchIndex searchIndex;
+
+    @Autowired
+    private MovieFacetIndex facetIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cinema.movie-catalog.ttl-minutes:10}")
+    private long catalogTtlMinutes;
+
+    // Danh sách phim đang chiếu, đã map sẵn sang dto. Phim chỉ đổi vài lần 1 ngày nên trang chủ
+    // gần như không phải đọc db; sửa phim qua saveMovie thì tăng thế hệ để bỏ bản đang giữ, TTL để bắt các thay
+    // đổi thẳng trên db. Bản nạp dở lúc sửa phim mang thế hệ cũ nên lần đọc sau vẫn nạp lại
+    private volatile Catalog catalog;
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    private final Object catalogLock = new Object();
+    // Cùng tên với số liệu các cache Caffeine: /actuator/metrics/cache.gets?tag=cache:movieCatalog
+    private Counter catalogHits;
+    private Counter catalogMisses;
+
+    @PostConstruct
+    public void registerCatalogMetrics() {
+        catalogHits = meterRegistry.counter("cache.gets", "cache", "movieCatalog", "result", "hit");
+        catalogMisses = meterRegistry.counter("cache.gets", "cache", "movieCatalog", "result", "miss");
+    }
+
+    // Dựng chỉ mục tìm kiếm và bộ lọc 1 lần lúc khởi động, sau đó chỉ cập nhật từng phim khi sửa phim
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        List<MovieDTO> showingMovies = loadCatalog(SHOWING);
+        searchIndex.rebuild(showingMovies);
+        facetIndex.rebuild(showingMovies);
+    }
+
     @Override
     public List<MovieDTO> findAllShowingMovies() {
-        return movieRepository.findMoviesByIsShowingOrderByIdDesc(1)
-                .stream()
-                .map(movie -> modelMapper.map(movie, MovieDTO.class))
-                .collect(Collectors.toList());
+        Catalog current = catalog;
+        if (isFresh(current)) {
+            catalogHits.increment();
+            return current.movies;
+        }
+        // Chỉ 1 request nạp lại, các request đến cùng lúc đợi rồi dùng bản vừa nạp
+        synchronized (catalogLock) {
+            current = catalog;
+            if (isFresh(current)) {
+                catalogHits.increment();
+                return current.movies;
+            }
+            catalogMisses.increment();
+            long generation = catalogGeneration.get();
+            List<MovieDTO> movies = loadCatalog(SHOWING);
+            catalog = new Catalog(movies, generation,
+                    System.nanoTime() + Duration.ofMinutes(catalogTtlMinutes).toNanos());
+            return movies;
+        }
+    }
+
+    @Override
+    public List<MovieSummaryDTO> findShowingMovieSummaries(Integer afterId, int limit) {
+        // Trang đầu không có afterId thì lấy từ phim mới nhất
+        return movieRepository.findMovieSummariesByIsShowing(SHOWING,
+                afterId == null ? Integer.MAX_VALUE : afterId, PageRequest.of(0, limit));
     }
 
     @Override
@@ -33,8 +111,60 @@ public class MovieService implements IMovieService{
 
     @Override
     public List<MovieDTO> findAllShowingMoviesByName(String keyword) {
-        return movieRepository.findMoviesByIsShowingAndNameContaining(1,keyword)
-                .stream().map(movie -> modelMapper.map(movie,MovieDTO.class))
-                .collect(Collectors.toList());
+        // Tìm trên chỉ mục trong bộ nhớ, không phân biệt dấu và không đọc db
+        return searchIndex.search(keyword);
+    }
+
+    @Override
+    public List<MovieSuggestionDTO> suggestShowingMovies(String prefix, int limit) {
+        return searchIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    public MovieFacetsDTO filterShowingMovies(Map<String, List<String>> selectedFacets) {
+        return facetIndex.filter(selectedFacets);
+    }
+
+    @Override
+    public void saveMovie(Movie movie) {
+        Movie savedMovie = movieRepository.save(movie);
+        // Đổi thế hệ sau khi đã lưu xong, request đọc lại sẽ nạp bản mới từ db
+        catalogGeneration.incrementAndGet();
+        // Phim thôi chiếu thì bỏ khỏi chỉ mục tìm kiếm, còn lại thay bằng bản mới
+        if (savedMovie.getIsShowing() == SHOWING) {
+            MovieDTO movieDTO = modelMapper.map(savedMovie, MovieDTO.class);
+            searchIndex.put(movieDTO);
+            facetIndex.put(movieDTO);
+        } else {
+            searchIndex.delete(savedMovie.getId());
+            facetIndex.delete(savedMovie.getId());
+        }
+        // Các body đã serialize sẵn có chứa phim (danh sách phim đang chiếu, danh sách rút gọn)
+        eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.MOVIES));
+    }
+
+    private boolean isFresh(Catalog current) {
+        return current != null && current.generation == catalogGeneration.get()
+                && System.nanoTime() - current.expiresAtNanos < 0;
+    }
+
+    private List<MovieDTO> loadCatalog(Integer isShowing) {
+        // List không sửa được vì mọi request dùng chung 1 bản
+        return movieRepository.findMoviesByIsShowingOrderByIdDesc(isShowing)
+                .stream()
+                .map(movie -> modelMapper.map(movie, MovieDTO.class))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private static class Catalog {
+        private final List<MovieDTO> movies;
+        private final long generation;
+        private final long expiresAtNanos;
+
+        Catalog(List<MovieDTO> movies, long generation, long expiresAtNanos) {
+            this.movies = movies;
+            this.generation = generation;
+            this.expiresAtNanos = expiresAtNanos;
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.events.CatalogChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Cache body của các api chỉ đọc hay bị gọi (danh sách phim, rạp chiếu phim): lưu sẵn byte json và bản gzip,
+// mỗi request chỉ chọn bản phù hợp với Accept-Encoding rồi trả thẳng, không serialize / nén lại.
+// Xoá theo nhóm dữ liệu khi có CatalogChangedEvent, TTL để bắt các thay đổi thẳng trên db.
+// Mỗi nhóm có 1 số thế hệ nằm trong key, tăng khi dữ liệu đổi: body đang nạp dở lúc đổi (đọc dữ liệu cũ) được lưu
+// dưới key của thế hệ cũ nên không request nào sau đó đọc tới.
+@Component
+public class ResponseBodyCache {
+    private static final String GZIP = "gzip";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cinema.response-cache.max-entries:1000}")
+    private long maxEntries;
+    @Value("${cinema.response-cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    // Key có dạng "<nhóm dữ liệu>:<thế hệ>:<api + tham số>"
+    private Cache<String, EncodedBody> bodies;
+    private final Map<CatalogChangedEvent.Section, AtomicLong> generations = new EnumMap<>(CatalogChangedEvent.Section.class);
+
+    public ResponseBodyCache() {
+        for (CatalogChangedEvent.Section section : CatalogChangedEvent.Section.values()) {
+            generations.put(section, new AtomicLong());
+        }
+    }
+
+    @PostConstruct
+    public void createCache() {
+        bodies = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        // Số lần trúng / trượt / bị đẩy ra xem ở cổng quản trị: /actuator/metrics/cache.gets?tag=cache:responseBody
+        CaffeineCacheMetrics.monitor(meterRegistry, bodies, "responseBody");
+    }
+
+    public ResponseEntity<byte[]> respond(CatalogChangedEvent.Section section, String key, String acceptEncoding,
+                                          Supplier<?> loader) {
+        EncodedBody body = bodies.get(section + ":" + generations.get(section).get() + ":" + key,
+                k -> encode(loader.get()));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        // Proxy / trình duyệt phải cache riêng theo Accept-Encoding
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(acceptEncoding)) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            return new ResponseEntity<>(body.gzip, headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(body.json, headers, HttpStatus.OK);
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Đổi thế hệ trước rồi mới dọn: dọn cả body của các thế hệ cũ được lưu sau lần dọn trước
+        String prefix = event.getSection() + ":";
+        String current = prefix + generations.get(event.getSection()).incrementAndGet() + ":";
+        bodies.asMap().keySet().removeIf(key -> key.startsWith(prefix) && !key.startsWith(current));
+    }
+
+    private EncodedBody encode(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            // Chỉ nén 1 lần cho mỗi lần nạp nên dùng mức nén cao nhất
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzip.write(json);
+            }
+            return new EncodedBody(json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Có gzip (hoặc *) với q > 0 trong Accept-Encoding, vd "gzip, deflate, br" hay "br;q=1.0, gzip;q=0.8"
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean accepted = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            if (!coding.equals(GZIP) && !coding.equals("*")) {
+                continue;
+            }
+            double q = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            // gzip được nêu tên thì quyết định luôn, "*" chỉ dùng khi không nêu gzip
+            if (coding.equals(GZIP)) {
+                return q > 0;
+            }
+            accepted = q > 0;
+        }
+        return accepted;
+    }
+
+    private static class EncodedBody {
+        private final byte[] json;
+        private final byte[] gzip;
+
+        EncodedBody(byte[] json, byte[] gzip) {
+            this.json = json;
+            this.gzip = gzip;
+        }
+    }
+}
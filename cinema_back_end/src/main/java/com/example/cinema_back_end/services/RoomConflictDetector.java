@@ -0,0 +1,140 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.events.CatalogChangedEvent;
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.utils.IntervalTree;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Phát hiện suất chiếu trùng giờ trong cùng phòng. Mỗi phòng 1 cây khoảng theo phút (tính từ 1970-01-01),
+// suất chiếu chiếm phòng trong [bắt đầu, bắt đầu + thời lượng phim + thời gian dọn phòng), kiểm tra 1 suất là O(log n).
+// Cây của phòng nạp từ db lần đầu gặp phòng (1 câu / phòng), đổi lịch chiếu thì nạp lại ở lần dùng sau.
+// Suất đang nhập đã giữ chỗ mà chưa ghi db được giữ riêng theo phòng nên nạp lại cây không làm mất, người nhập
+// tự trả đúng các chỗ của mình khi ghi lỗi / dừng giữa chừng. Db vẫn là nơi quyết định (xem ScheduleImportService).
+@Component
+public class RoomConflictDetector {
+    public static final long MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private IScheduleRepository scheduleRepository;
+
+    @Value("${cinema.schedule.cleaning-minutes:15}")
+    private int cleaningMinutes;
+
+    private final Map<Integer, RoomTimetable> timetables = new ConcurrentHashMap<>();
+    // Chỗ giữ mang id âm, không trùng id lịch chiếu trong db
+    private final AtomicInteger reservationSequence = new AtomicInteger();
+
+    // id các lịch chiếu của phòng trùng với suất mới (id âm là suất đang nhập chưa ghi db), theo giờ bắt đầu tăng dần
+    public List<Integer> findConflicts(int roomId, LocalDate startDate, LocalTime startTime, int duration) {
+        long start = toMinutes(startDate, startTime);
+        RoomTimetable timetable = timetable(roomId);
+        synchronized (timetable) {
+            return timetable.tree(roomId).overlapping(start, start + duration + cleaningMinutes);
+        }
+    }
+
+    // Kiểm tra và giữ chỗ trong cùng 1 lần khoá phòng, trả null nếu trùng giờ.
+    // Người giữ phải gọi confirm (đã ghi db) hoặc release (không ghi) cho mọi chỗ đã giữ
+    public Reservation reserve(int roomId, LocalDate startDate, LocalTime startTime, int duration) {
+        long start = toMinutes(startDate, startTime);
+        long end = start + duration + cleaningMinutes;
+        RoomTimetable timetable = timetable(roomId);
+        synchronized (timetable) {
+            IntervalTree tree = timetable.tree(roomId);
+            if (tree.overlaps(start, end)) {
+                return null;
+            }
+            Reservation reservation = new Reservation(roomId, start, end, -reservationSequence.incrementAndGet());
+            tree.insert(start, end, reservation.id);
+            timetable.pending.put(reservation.id, reservation);
+            return reservation;
+        }
+    }
+
+    // Suất đã ghi db: lần nạp lại sau đọc từ db, không cần giữ riêng nữa
+    public void confirm(Reservation reservation) {
+        RoomTimetable timetable = timetable(reservation.roomId);
+        synchronized (timetable) {
+            timetable.pending.remove(reservation.id);
+        }
+    }
+
+    // Trả chỗ không ghi được xuống db, chỉ xoá đúng chỗ này
+    public void release(Reservation reservation) {
+        RoomTimetable timetable = timetable(reservation.roomId);
+        synchronized (timetable) {
+            if (timetable.pending.remove(reservation.id) != null && timetable.tree != null) {
+                timetable.tree.remove(reservation.start, reservation.id);
+            }
+        }
+    }
+
+    public int getCleaningMinutes() {
+        return cleaningMinutes;
+    }
+
+    // Các suất đã có trong db có thể đổi (nhập lịch, node khác ghi...) => nạp lại ở lần dùng sau, giữ các chỗ đang giữ
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getSection() == CatalogChangedEvent.Section.SCHEDULES) {
+            timetables.values().forEach(timetable -> {
+                synchronized (timetable) {
+                    timetable.stale = true;
+                }
+            });
+        }
+    }
+
+    public static long toMinutes(LocalDate startDate, LocalTime startTime) {
+        return startDate.toEpochDay() * MINUTES_PER_DAY + startTime.toSecondOfDay() / 60;
+    }
+
+    private RoomTimetable timetable(int roomId) {
+        return timetables.computeIfAbsent(roomId, id -> new RoomTimetable());
+    }
+
+    public static class Reservation {
+        private final int roomId;
+        private final long start;
+        private final long end;
+        private final int id;
+
+        Reservation(int roomId, long start, long end, int id) {
+            this.roomId = roomId;
+            this.start = start;
+            this.end = end;
+            this.id = id;
+        }
+    }
+
+    // Mọi truy cập đều trong synchronized (timetable)
+    private class RoomTimetable {
+        private IntervalTree tree;
+        private boolean stale = true;
+        private final Map<Integer, Reservation> pending = new HashMap<>();
+
+        IntervalTree tree(int roomId) {
+            if (stale) {
+                tree = new IntervalTree();
+                for (Object[] row : scheduleRepository.getTimetableByRoom_Id(roomId)) {
+                    long start = toMinutes((LocalDate) row[1], (LocalTime) row[2]);
+                    tree.insert(start, start + (Integer) row[3] + cleaningMinutes, (Integer) row[0]);
+                }
+                pending.values().forEach(reservation -> tree.insert(reservation.start, reservation.end, reservation.id));
+                stale = false;
+            }
+            return tree;
+        }
+    }
+}
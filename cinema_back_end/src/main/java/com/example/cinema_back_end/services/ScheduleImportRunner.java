@@ -0,0 +1,55 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.dtos.ScheduleImportReportDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Nhập lịch chiếu từ dòng lệnh rồi thoát, vd:
+// java -jar cinema_back_end.jar --spring.profiles.active=schedule-import --cinema.schedule-import.file=lich-tuan.csv
+// File .jsonl / .ndjson đọc theo json lines, còn lại theo csv. Mã thoát 1 nếu có dòng bị loại.
+// Chỉ có trong profile schedule-import (không mở cổng web), app phục vụ khách không có bean này
+@Component
+@Profile(ScheduleImportRunner.PROFILE)
+public class ScheduleImportRunner implements ApplicationRunner {
+    public static final String PROFILE = "schedule-import";
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleImportRunner.class);
+
+    @Autowired
+    private IScheduleImportService scheduleImportService;
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${cinema.schedule-import.file:}")
+    private String file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Thiếu --cinema.schedule-import.file=<file .csv / .jsonl>");
+        }
+        Path path = Paths.get(file);
+        String name = path.getFileName().toString().toLowerCase();
+        String format = name.endsWith(".jsonl") || name.endsWith(".ndjson")
+                ? IScheduleImportService.JSON_LINES : IScheduleImportService.CSV;
+        ScheduleImportReportDTO report;
+        try (InputStream input = Files.newInputStream(path)) {
+            report = scheduleImportService.importSchedules(input, format);
+        }
+        report.getRejections().forEach(logger::warn);
+        int exitCode = report.getRejectedRows() == 0 ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
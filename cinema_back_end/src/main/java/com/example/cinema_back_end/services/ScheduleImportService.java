@@ -0,0 +1,395 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.dtos.ScheduleImportReportDTO;
+import com.example.cinema_back_end.entities.Branch;
+import com.example.cinema_back_end.events.CatalogChangedEvent;
+import com.example.cinema_back_end.repositories.IBranchRepository;
+import com.example.cinema_back_end.repositories.IMovieRepository;
+import com.example.cinema_back_end.repositories.IRoomRepository;
+import com.example.cinema_back_end.repositories.ISeatRepository;
+import com.example.cinema_back_end.utils.IntervalTree;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Nhập lịch chiếu hàng loạt từ file CSV (có dòng tiêu đề) hoặc JSON lines, mỗi dòng 1 lịch chiếu gồm
+// movie, branch, room, startDate (yyyy-MM-dd), startTime (HH:mm), price. Phim / chi nhánh / phòng ghi bằng id hoặc tên.
+// Đọc từng dòng và ghi theo từng batch JDBC, mỗi batch 1 transaction nên file lớn cỡ nào cũng không phải giữ cả file
+// trong bộ nhớ; chỉ giữ bảng tra phim / chi nhánh / phòng. Trùng giờ kiểm tra từng dòng trên cây khoảng của
+// RoomConflictDetector, rồi kiểm lại cả batch với db trong transaction ghi (đã khoá các phòng của batch).
+@Service
+public class ScheduleImportService implements IScheduleImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleImportService.class);
+    private static final List<String> COLUMNS = Arrays.asList("movie", "branch", "room", "startDate", "startTime", "price");
+    private static final String INSERT_SCHEDULE = "INSERT INTO schedule "
+            + "(start_date, start_time, price, remaining_seats, movie_id, branch_id, room_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String LOCK_ROOMS = "SELECT id FROM room WHERE id IN (%s) FOR UPDATE";
+    private static final String SELECT_ROOM_TIMETABLES = "SELECT s.room_id, s.start_date, s.start_time, m.duration "
+            + "FROM schedule s JOIN movie m ON m.id = s.movie_id WHERE s.room_id IN (%s) AND s.start_date BETWEEN ? AND ?";
+    // Tên trùng nhau thì không biết là cái nào, phải ghi bằng id
+    private static final int AMBIGUOUS = -1;
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+
+    @Autowired
+    private IMovieRepository movieRepository;
+    @Autowired
+    private IBranchRepository branchRepository;
+    @Autowired
+    private IRoomRepository roomRepository;
+    @Autowired
+    private ISeatRepository seatRepository;
+    @Autowired
+    private RoomConflictDetector roomConflictDetector;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${cinema.schedule-import.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public ScheduleImportReportDTO importSchedules(InputStream input, String format) throws IOException {
+        if (!CSV.equals(format) && !JSON_LINES.equals(format)) {
+            throw new IllegalArgumentException("Định dạng file phải là " + CSV + " hoặc " + JSON_LINES + "!");
+        }
+        long startedAt = System.nanoTime();
+        ScheduleImportReportDTO report = new ScheduleImportReportDTO();
+        Lookups lookups = loadLookups();
+        List<Row> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                if (CSV.equals(format) && header == null) {
+                    header = readHeader(line);
+                    continue;
+                }
+                report.setTotalRows(report.getTotalRows() + 1);
+                try {
+                    Map<String, String> fields = CSV.equals(format) ? csvFields(header, line) : jsonFields(line);
+                    batch.add(resolve(fields, lookups, lineNumber));
+                    if (batch.size() >= batchSize) {
+                        flush(batch, report);
+                    }
+                } catch (IllegalArgumentException | DateTimeParseException | JsonProcessingException e) {
+                    reject(report, 1, "Dòng " + lineNumber + ": " + e.getMessage());
+                }
+            }
+            flush(batch, report);
+        } finally {
+            // Dừng giữa chừng thì trả các chỗ đã giữ của batch chưa ghi, không chặn giờ đó của lần nhập sau
+            batch.forEach(row -> roomConflictDetector.release(row.reservation));
+            batch.clear();
+            // Kể cả khi dừng giữa chừng (mất kết nối lúc đang tải file...), các batch đã commit vẫn nằm trong db:
+            // chỉ mục lịch chiếu, cây suất chiếu, body đã cache của danh sách rạp dựng lại từ db
+            if (report.getImportedRows() > 0) {
+                eventPublisher.publishEvent(new CatalogChangedEvent(CatalogChangedEvent.Section.SCHEDULES));
+            }
+        }
+
+        report.setElapsedMillis((System.nanoTime() - startedAt) / 1_000_000);
+        report.setRowsPerSecond(report.getTotalRows() * 1000.0 / Math.max(1, report.getElapsedMillis()));
+        logger.info("Schedule import: {} rows, {} imported, {} rejected in {} ms ({} rows/s)", report.getTotalRows(),
+                report.getImportedRows(), report.getRejectedRows(), report.getElapsedMillis(),
+                Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    // Kiểm tra 1 dòng và giữ chỗ trong phòng, dòng sai thì ném IllegalArgumentException kèm lý do
+    private Row resolve(Map<String, String> fields, Lookups lookups, long lineNumber) {
+        int movieId = lookups.movies.find(fields.get("movie"), "phim");
+        int branchId = lookups.branches.find(fields.get("branch"), "chi nhánh");
+        int roomId = lookups.roomsByBranch.getOrDefault(branchId, new Table()).find(fields.get("room"), "phòng của chi nhánh");
+        LocalDate startDate = LocalDate.parse(required(fields, "startDate"));
+        LocalTime startTime = LocalTime.parse(required(fields, "startTime"));
+        double price = Double.parseDouble(required(fields, "price"));
+        if (price < 0) {
+            throw new IllegalArgumentException("Giá vé không được âm");
+        }
+        int duration = lookups.durations.get(movieId);
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Phim " + movieId + " chưa có thời lượng");
+        }
+        // Giữ chỗ ngay để các dòng sau trong cùng file (và các lần nhập khác đang chạy) cũng thấy suất này
+        RoomConflictDetector.Reservation reservation = roomConflictDetector.reserve(roomId, startDate, startTime, duration);
+        if (reservation == null) {
+            throw new IllegalArgumentException(conflictMessage(roomId));
+        }
+
+        long start = RoomConflictDetector.toMinutes(startDate, startTime);
+        return new Row(lineNumber, roomId, start, start + duration + roomConflictDetector.getCleaningMinutes(),
+                new Object[]{startDate, startTime, price, lookups.seatCounts.getOrDefault(roomId, 0),
+                        movieId, branchId, roomId},
+                reservation);
+    }
+
+    // Mỗi batch 1 transaction riêng: lỗi ghi chỉ mất batch đó, các batch trước đã commit vẫn giữ
+    private void flush(List<Row> batch, ScheduleImportReportDTO report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                markDatabaseConflicts(batch);
+                List<Object[]> values = new ArrayList<>(batch.size());
+                batch.stream().filter(row -> !row.conflicting).forEach(row -> values.add(row.values));
+                jdbcTemplate.batchUpdate(INSERT_SCHEDULE, values);
+            });
+            for (Row row : batch) {
+                if (row.conflicting) {
+                    roomConflictDetector.release(row.reservation);
+                    reject(report, 1, "Dòng " + row.lineNumber + ": " + conflictMessage(row.roomId));
+                } else {
+                    roomConflictDetector.confirm(row.reservation);
+                    report.setImportedRows(report.getImportedRows() + 1);
+                }
+            }
+        } catch (DataAccessException e) {
+            batch.forEach(row -> roomConflictDetector.release(row.reservation));
+            reject(report, batch.size(), "Lỗi ghi " + batch.size() + " dòng: " + e.getMostSpecificCause().getMessage());
+        }
+        batch.clear();
+    }
+
+    // Db là nơi quyết định: khoá các phòng của batch (lần nhập khác / node khác cùng phòng phải chờ commit) rồi so
+    // từng dòng với các suất đã có trong db của các phòng đó, 2 câu cho cả batch
+    private void markDatabaseConflicts(List<Row> batch) {
+        List<Object> roomIds = batch.stream().map(row -> (Object) row.roomId).distinct().collect(Collectors.toList());
+        String placeholders = String.join(", ", Collections.nCopies(roomIds.size(), "?"));
+        jdbcTemplate.queryForList(String.format(LOCK_ROOMS, placeholders), Integer.class, roomIds.toArray());
+
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+        for (Row row : batch) {
+            firstStart = Math.min(firstStart, row.start);
+            lastEnd = Math.max(lastEnd, row.end);
+        }
+        List<Object> arguments = new ArrayList<>(roomIds);
+        // Suất bắt đầu tối hôm trước có thể chiếu sang ngày đầu của batch. Dòng chiếu qua nửa đêm (tính cả dọn phòng)
+        // có thể trùng suất sáng sớm hôm sau => lấy tới ngày mà dòng kết thúc muộn nhất chạm tới
+        arguments.add(LocalDate.ofEpochDay(Math.floorDiv(firstStart, RoomConflictDetector.MINUTES_PER_DAY)).minusDays(1));
+        arguments.add(LocalDate.ofEpochDay(Math.floorDiv(lastEnd - 1, RoomConflictDetector.MINUTES_PER_DAY)));
+        Map<Integer, IntervalTree> timetables = new HashMap<>();
+        jdbcTemplate.query(String.format(SELECT_ROOM_TIMETABLES, placeholders), resultSet -> {
+            long start = RoomConflictDetector.toMinutes(resultSet.getObject(2, LocalDate.class),
+                    resultSet.getObject(3, LocalTime.class));
+            timetables.computeIfAbsent(resultSet.getInt(1), id -> new IntervalTree())
+                    .insert(start, start + resultSet.getInt(4) + roomConflictDetector.getCleaningMinutes(), 0);
+        }, arguments.toArray());
+
+        for (Row row : batch) {
+            IntervalTree timetable = timetables.computeIfAbsent(row.roomId, id -> new IntervalTree());
+            row.conflicting = timetable.overlaps(row.start, row.end);
+            if (!row.conflicting) {
+                timetable.insert(row.start, row.end, 0);
+            }
+        }
+    }
+
+    private String conflictMessage(int roomId) {
+        return "Phòng " + roomId + " đã có suất chiếu trùng giờ (tính cả "
+                + roomConflictDetector.getCleaningMinutes() + " phút dọn phòng)";
+    }
+
+    private static void reject(ScheduleImportReportDTO report, int rows, String reason) {
+        report.setRejectedRows(report.getRejectedRows() + rows);
+        if (report.getRejections().size() < MAX_REPORTED_REJECTIONS) {
+            report.getRejections().add(reason);
+        }
+    }
+
+    private Lookups loadLookups() {
+        Lookups lookups = new Lookups();
+        for (Object[] row : movieRepository.getMovieDurations()) {
+            lookups.movies.add((Integer) row[0], (String) row[1]);
+            lookups.durations.put((Integer) row[0], (Integer) row[2]);
+        }
+        for (Branch branch : branchRepository.findAll()) {
+            lookups.branches.add(branch.getId(), branch.getName());
+        }
+        for (Object[] row : roomRepository.getRoomLookupRows()) {
+            lookups.roomsByBranch.computeIfAbsent((Integer) row[2], id -> new Table()).add((Integer) row[0], (String) row[1]);
+        }
+        for (Object[] row : seatRepository.countSeatsByRoom()) {
+            lookups.seatCounts.put((Integer) row[0], ((Long) row[1]).intValue());
+        }
+        return lookups;
+    }
+
+    private static List<String> readHeader(String line) {
+        List<String> header = splitCsv(line);
+        header.replaceAll(String::trim);
+        List<String> missing = new ArrayList<>(COLUMNS);
+        missing.removeAll(header);
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Dòng tiêu đề thiếu cột: " + String.join(", ", missing));
+        }
+        return header;
+    }
+
+    private static Map<String, String> csvFields(List<String> header, String line) {
+        List<String> values = splitCsv(line);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Có " + values.size() + " cột, tiêu đề có " + header.size() + " cột");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i).trim());
+        }
+        return fields;
+    }
+
+    private Map<String, String> jsonFields(String line) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(line);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Mỗi dòng phải là 1 object json");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (String column : COLUMNS) {
+            JsonNode value = node.get(column);
+            if (value != null && !value.isNull()) {
+                fields.put(column, value.asText().trim());
+            }
+        }
+        return fields;
+    }
+
+    // Tách 1 dòng CSV theo dấu phẩy; giá trị có dấu phẩy thì đặt trong "...", dấu " bên trong ghi thành ""
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static String required(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Thiếu " + column);
+        }
+        return value;
+    }
+
+    // 1 dòng đã kiểm tra, chờ ghi theo batch
+    private static class Row {
+        private final long lineNumber;
+        private final int roomId;
+        // Phút bắt đầu / hết dọn phòng, như RoomConflictDetector
+        private final long start;
+        private final long end;
+        // Tham số của câu INSERT
+        private final Object[] values;
+        private final RoomConflictDetector.Reservation reservation;
+        // Trùng với suất đã có trong db mà cây khoảng chưa biết (node khác, ghi thẳng vào db...)
+        private boolean conflicting;
+
+        Row(long lineNumber, int roomId, long start, long end, Object[] values,
+            RoomConflictDetector.Reservation reservation) {
+            this.lineNumber = lineNumber;
+            this.roomId = roomId;
+            this.start = start;
+            this.end = end;
+            this.values = values;
+            this.reservation = reservation;
+        }
+    }
+
+    // Bảng tra phim / chi nhánh / phòng, nạp 1 lần cho mỗi lần nhập
+    private static class Lookups {
+        private final Table movies = new Table();
+        private final Map<Integer, Integer> durations = new HashMap<>();
+        private final Table branches = new Table();
+        private final Map<Integer, Table> roomsByBranch = new HashMap<>();
+        private final Map<Integer, Integer> seatCounts = new HashMap<>();
+    }
+
+    // Tra id theo id (toàn chữ số) hoặc theo tên, không phân biệt hoa thường
+    private static class Table {
+        private final Set<Integer> ids = new HashSet<>();
+        private final Map<String, Integer> idsByName = new HashMap<>();
+
+        void add(int id, String name) {
+            ids.add(id);
+            if (name != null && !name.trim().isEmpty()) {
+                idsByName.merge(name.trim().toLowerCase(), id, (first, second) -> AMBIGUOUS);
+            }
+        }
+
+        int find(String value, String kind) {
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException("Thiếu " + kind);
+            }
+            if (value.chars().allMatch(Character::isDigit) && value.length() < 10
+                    && ids.contains(Integer.parseInt(value))) {
+                return Integer.parseInt(value);
+            }
+            Integer id = idsByName.get(value.toLowerCase());
+            if (id == null) {
+                throw new IllegalArgumentException("Không tìm thấy " + kind + ": " + value);
+            }
+            if (id == AMBIGUOUS) {
+                throw new IllegalArgumentException("Có nhiều " + kind + " tên " + value + ", hãy ghi bằng id");
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.dtos.BranchDTO;
+import com.example.cinema_back_end.dtos.RoomDTO;
+import com.example.cinema_back_end.dtos.ScheduleIndexStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Chỉ mục lịch chiếu trong bộ nhớ: mỗi lịch chiếu là 1 dòng (phim, chi nhánh, ngày, giờ, phòng, id lịch),
+// các cột là mảng int sắp xếp theo đúng thứ tự đó, tương đương map lồng phim -> chi nhánh -> ngày -> giờ -> phòng
+// -> id lịch nhưng không có object / boxing cho từng lịch. Mỗi lần tìm là 2 lần tìm nhị phân theo tiền tố khoá
+// rồi đọc liên tiếp các dòng nằm giữa.
+// Dựng lại toàn bộ khi lịch chiếu đổi (hiếm) và định kỳ, số ghế còn trống thì trừ thẳng trên mảng khi bán vé
+// theo nhật ký bán vé (BookedSeatsJournal).
+@Component
+public class ScheduleIndex {
+    // Số ghế còn trống chưa tính (Schedule.remainingSeats null)
+    private static final int UNKNOWN_SEATS = Integer.MIN_VALUE;
+    // Kích thước ước lượng của header 1 mảng trên JVM 64 bit
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    @Autowired
+    private BookedSeatsJournal bookedSeatsJournal;
+
+    // Đọc 1 tham chiếu là có bản chỉ mục nhất quán, không cần lock
+    private volatile Snapshot snapshot = new Snapshot(new ArrayList<>(), 0, new ArrayList<>(), new ArrayList<>());
+
+    // Mỗi dòng là {id lịch, id phim, id chi nhánh, ngày, giờ, id phòng, số ghế còn trống}, loadedVersion là version
+    // của nhật ký bán vé lấy trước khi đọc các dòng. Các lượt bán commit trong lúc đọc / dựng được áp lên bản mới
+    // trước khi công bố; trả false nếu nhật ký không còn giữ đủ các lượt đó (số ghế đúng lại ở lần dựng sau)
+    public boolean rebuild(List<Object[]> scheduleRows, long loadedVersion,
+                           Collection<BranchDTO> branches, Collection<RoomDTO> rooms) {
+        Snapshot rebuilt = new Snapshot(scheduleRows, loadedVersion, branches, rooms);
+        boolean complete = catchUp(rebuilt);
+        snapshot = rebuilt;
+        // Lượt ghi nhận giữa 2 bước trên có thể chỉ được áp vào bản cũ
+        return catchUp(rebuilt) && complete;
+    }
+
+    // Giờ chiếu khác nhau của phim ở chi nhánh trong ngày, tăng dần
+    public List<LocalTime> getStartTimes(int movieId, int branchId, LocalDate startDate) {
+        Snapshot index = snapshot;
+        int[] key = {movieId, branchId, (int) startDate.toEpochDay()};
+        int from = index.lowerBound(key);
+        int to = index.upperBound(key);
+        List<LocalTime> startTimes = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            // Các dòng cùng giờ (khác phòng) nằm liền nhau
+            if (i == from || index.times[i] != index.times[i - 1]) {
+                startTimes.add(LocalTime.ofSecondOfDay(index.times[i]));
+            }
+        }
+        return startTimes;
+    }
+
+    public List<Integer> getScheduleIds(int movieId, int branchId, LocalDate startDate, LocalTime startTime, int roomId) {
+        Snapshot index = snapshot;
+        int[] key = {movieId, branchId, (int) startDate.toEpochDay(), startTime.toSecondOfDay(), roomId};
+        List<Integer> scheduleIds = new ArrayList<>();
+        for (int i = index.lowerBound(key), to = index.upperBound(key); i < to; i++) {
+            scheduleIds.add(index.scheduleIds[i]);
+        }
+        return scheduleIds;
+    }
+
+    // Phòng của các lịch chiếu cùng phim, chi nhánh, ngày và giờ, kèm số ghế còn trống của từng lịch
+    public List<RoomDTO> getRooms(int movieId, int branchId, LocalDate startDate, LocalTime startTime) {
+        Snapshot index = snapshot;
+        int[] key = {movieId, branchId, (int) startDate.toEpochDay(), startTime.toSecondOfDay()};
+        List<RoomDTO> rooms = new ArrayList<>();
+        for (int i = index.lowerBound(key), to = index.upperBound(key); i < to; i++) {
+            RoomDTO room = index.rooms.get(index.roomIds[i]);
+            if (room != null) {
+                int remainingSeats = index.remainingSeats.get(i);
+                rooms.add(copyOf(room, remainingSeats == UNKNOWN_SEATS ? null : remainingSeats));
+            }
+        }
+        return rooms;
+    }
+
+    // Chi nhánh có chiếu phim, theo id tăng dần
+    public List<BranchDTO> getBranches(int movieId) {
+        Snapshot index = snapshot;
+        int[] key = {movieId};
+        int from = index.lowerBound(key);
+        int to = index.upperBound(key);
+        List<BranchDTO> branches = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            if (i == from || index.branchIds[i] != index.branchIds[i - 1]) {
+                BranchDTO branch = index.branches.get(index.branchIds[i]);
+                if (branch != null) {
+                    branches.add(branch);
+                }
+            }
+        }
+        return branches;
+    }
+
+    // Gọi sau khi lượt bán (đã commit) được ghi vào nhật ký, lịch chưa có trong chỉ mục thì bỏ qua
+    public void applyBookings() {
+        catchUp(snapshot);
+    }
+
+    public ScheduleIndexStatsDTO getStats() {
+        Snapshot index = snapshot;
+        ScheduleIndexStatsDTO stats = new ScheduleIndexStatsDTO();
+        stats.setSchedules(index.size);
+        stats.setBranches(index.branches.size());
+        stats.setRooms(index.rooms.size());
+        stats.setMemoryBytes(index.memoryBytes());
+        return stats;
+    }
+
+    // Mỗi lượt trong nhật ký được áp đúng 1 lần lên mỗi bản chỉ mục
+    private boolean catchUp(Snapshot index) {
+        synchronized (index) {
+            long replayed = bookedSeatsJournal.replay(index.version, (scheduleId, count) -> {
+                int position = index.positionOf(scheduleId);
+                if (position >= 0) {
+                    index.remainingSeats.getAndUpdate(position, seats -> seats == UNKNOWN_SEATS ? seats : seats - count);
+                }
+            });
+            if (replayed < 0) {
+                // Bỏ qua các lượt đã mất, vẫn nhận các lượt sau
+                index.version = bookedSeatsJournal.currentVersion();
+                return false;
+            }
+            index.version = replayed;
+            return true;
+        }
+    }
+
+    private static RoomDTO copyOf(RoomDTO room, Integer remainingSeats) {
+        RoomDTO copy = new RoomDTO();
+        copy.setId(room.getId());
+        copy.setName(room.getName());
+        copy.setCapacity(room.getCapacity());
+        copy.setTotalArea(room.getTotalArea());
+        copy.setImgURL(room.getImgURL());
+        copy.setBranch(room.getBranch());
+        copy.setRemainingSeats(remainingSeats);
+        return copy;
+    }
+
+    private static class Snapshot {
+        private final int size;
+        // Các cột của khoá, sắp theo (phim, chi nhánh, ngày, giờ, phòng, id lịch)
+        private final int[] movieIds;
+        private final int[] branchIds;
+        // LocalDate.toEpochDay()
+        private final int[] dates;
+        // LocalTime.toSecondOfDay()
+        private final int[] times;
+        private final int[] roomIds;
+        private final int[] scheduleIds;
+        private final AtomicIntegerArray remainingSeats;
+        // Version nhật ký bán vé đã có trong remainingSeats, đổi khi giữ lock của snapshot
+        private long version;
+        // id lịch tăng dần và vị trí dòng tương ứng, để tìm dòng khi bán vé
+        private final int[] sortedScheduleIds;
+        private final int[] positions;
+        // Chi nhánh / phòng chỉ có vài chục, hàng trăm dòng nên giữ luôn dto
+        private final Map<Integer, BranchDTO> branches = new HashMap<>();
+        private final Map<Integer, RoomDTO> rooms = new HashMap<>();
+
+        Snapshot(List<Object[]> scheduleRows, long version, Collection<BranchDTO> branchList, Collection<RoomDTO> roomList) {
+            this.version = version;
+            size = scheduleRows.size();
+            int[][] rows = new int[size][];
+            for (int i = 0; i < size; i++) {
+                Object[] row = scheduleRows.get(i);
+                Integer seats = (Integer) row[6];
+                rows[i] = new int[]{
+                        (Integer) row[1],
+                        (Integer) row[2],
+                        (int) ((LocalDate) row[3]).toEpochDay(),
+                        ((LocalTime) row[4]).toSecondOfDay(),
+                        (Integer) row[5],
+                        (Integer) row[0],
+                        seats == null ? UNKNOWN_SEATS : seats};
+            }
+            Arrays.sort(rows, (a, b) -> Arrays.compare(a, 0, 6, b, 0, 6));
+
+            movieIds = new int[size];
+            branchIds = new int[size];
+            dates = new int[size];
+            times = new int[size];
+            roomIds = new int[size];
+            scheduleIds = new int[size];
+            remainingSeats = new AtomicIntegerArray(size);
+            long[] idPositions = new long[size];
+            for (int i = 0; i < size; i++) {
+                int[] row = rows[i];
+                movieIds[i] = row[0];
+                branchIds[i] = row[1];
+                dates[i] = row[2];
+                times[i] = row[3];
+                roomIds[i] = row[4];
+                scheduleIds[i] = row[5];
+                remainingSeats.set(i, row[6]);
+                // Gói id lịch (không âm) và vị trí vào 1 long để sắp xếp không cần object
+                idPositions[i] = ((long) row[5] << 32) | i;
+            }
+            Arrays.sort(idPositions);
+            sortedScheduleIds = new int[size];
+            positions = new int[size];
+            for (int i = 0; i < size; i++) {
+                sortedScheduleIds[i] = (int) (idPositions[i] >>> 32);
+                positions[i] = (int) idPositions[i];
+            }
+            branchList.forEach(branch -> branches.put(branch.getId(), branch));
+            roomList.forEach(room -> rooms.put(room.getId(), room));
+        }
+
+        // Dòng đầu tiên có tiền tố khoá >= key
+        int lowerBound(int[] key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(middle, key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Dòng đầu tiên có tiền tố khoá > key
+        int upperBound(int[] key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(middle, key) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        int positionOf(int scheduleId) {
+            int found = Arrays.binarySearch(sortedScheduleIds, scheduleId);
+            return found < 0 ? -1 : positions[found];
+        }
+
+        // So key.length cột đầu của dòng với key
+        private int compare(int row, int[] key) {
+            for (int column = 0; column < key.length; column++) {
+                int value = column(column)[row];
+                if (value != key[column]) {
+                    return value < key[column] ? -1 : 1;
+                }
+            }
+            return 0;
+        }
+
+        private int[] column(int column) {
+            switch (column) {
+                case 0:
+                    return movieIds;
+                case 1:
+                    return branchIds;
+                case 2:
+                    return dates;
+                case 3:
+                    return times;
+                default:
+                    return roomIds;
+            }
+        }
+
+        // 8 mảng int + mảng bên trong AtomicIntegerArray, mỗi lịch chiếu 36 byte. Dto chi nhánh / phòng không đáng kể
+        long memoryBytes() {
+            int intArrays = 9;
+            return intArrays * (ARRAY_HEADER_BYTES + 4L * size);
+        }
+    }
+}
@@ -1,35 +1,353 @@
 package com.example.cinema_back_end.services;
 
+import com.example.cinema_back_end.dtos.BranchDTO;
+import com.example.cinema_back_end.dtos.RoomConflictDTO;
+import com.example.cinema_back_end.dtos.RoomDTO;
 import com.example.cinema_back_end.dtos.ScheduleDTO;
+import com.example.cinema_back_end.dtos.ScheduleIndexStatsDTO;
+import com.example.cinema_back_end.dtos.ShowtimeBranchDTO;
+import com.example.cinema_back_end.dtos.ShowtimeDTO;
+import com.example.cinema_back_end.dtos.ShowtimeDateDTO;
+import com.example.cinema_back_end.dtos.ShowtimeRoomDTO;
+import com.example.cinema_back_end.entities.Movie;
+import com.example.cinema_back_end.events.CatalogChangedEvent;
+import com.example.cinema_back_end.events.SeatsChangedEvent;
+import com.example.cinema_back_end.repositories.IBranchRepository;
+import com.example.cinema_back_end.repositories.IMovieRepository;
+import com.example.cinema_back_end.repositories.IRoomRepository;
 import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
 public class ScheduleService implements IScheduleService {
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleService.class);
+    private static final DateTimeFormatter START_TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
     @Autowired
     private IScheduleRepository scheduleRepository;
     @Autowired
+    private IBranchRepository branchRepository;
+    @Autowired
+    private IRoomRepository roomRepository;
+    @Autowired
+    private IMovieRepository movieRepository;
+    @Autowired
     private ModelMapper modelMapper;
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+    @Autowired
+    private RoomConflictDetector roomConflictDetector;
+    @Autowired
+    private BookedSeatsJournal bookedSeatsJournal;
+
+    @Value("${cinema.showtime-tree.ttl-minutes:10}")
+    private long showtimeTreeTtlMinutes;
+    @Value("${cinema.showtime-tree.max-movies:500}")
+    private long showtimeTreeMaxMovies;
+    @Value("${cinema.schedule-index.refresh-minutes:5}")
+    private long scheduleIndexRefreshMinutes;
+    // yyyy-MM-dd, trống là hôm nay
+    @Value("${cinema.schedule-index.from-date:}")
+    private String scheduleIndexFromDate;
+
+    // Cây chọn suất chiếu theo "phim/từ ngày/số ngày". Mỗi lần trả về thì áp các lượt bán vé từ lúc đọc cây lên
+    // 1 bản sao, đổi lịch chiếu thì xoá hết; TTL để bắt các thay đổi thẳng trên db
+    private Cache<String, ShowtimeTree> showtimeTrees;
+    private ScheduledExecutorService scheduleIndexRefresher;
+
+    @PostConstruct
+    public void createShowtimeTrees() {
+        showtimeTrees = Caffeine.newBuilder()
+                .maximumSize(showtimeTreeMaxMovies)
+                .expireAfterWrite(Duration.ofMinutes(showtimeTreeTtlMinutes))
+                .build();
+    }
+
+    // Sự kiện đổi lịch chỉ có trong 1 process: lịch ghi từ node khác / lệnh nhập chạy riêng / sửa thẳng trên db
+    // thì chỉ mục chỉ thấy ở lần dựng lại định kỳ. <= 0 là tắt
+    @PostConstruct
+    public void startScheduleIndexRefresh() {
+        if (scheduleIndexRefreshMinutes <= 0) {
+            return;
+        }
+        scheduleIndexRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "schedule-index-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleIndexRefresher.scheduleWithFixedDelay(() -> {
+            // Lỗi 1 lần (mất kết nối db...) không được làm dừng các lần sau
+            try {
+                buildScheduleIndex();
+            } catch (RuntimeException e) {
+                logger.warn("Schedule index refresh failed, keeping the previous index", e);
+            }
+        }, scheduleIndexRefreshMinutes, scheduleIndexRefreshMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stopScheduleIndexRefresh() {
+        if (scheduleIndexRefresher != null) {
+            scheduleIndexRefresher.shutdownNow();
+        }
+    }
+
+    // Dựng chỉ mục lịch chiếu lúc khởi động (sau khi đã tính bù số ghế còn trống), mỗi khi lịch chiếu đổi và định kỳ.
+    // Chỉ các lịch từ hôm nay: lịch đã qua không còn ai chọn suất / đặt vé, chỉ mục không lớn dần theo thời gian
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildScheduleIndex() {
+        List<BranchDTO> branches = branchRepository.findAll().stream()
+                .map(branch -> modelMapper.map(branch, BranchDTO.class))
+                .collect(Collectors.toList());
+        List<RoomDTO> rooms = roomRepository.findAll().stream()
+                .map(room -> modelMapper.map(room, RoomDTO.class))
+                .collect(Collectors.toList());
+        // Lấy version trước khi đọc: lượt bán commit từ đây tới lúc công bố chỉ mục được áp lại lên bản mới
+        long loadedVersion = bookedSeatsJournal.currentVersion();
+        LocalDate fromDate = scheduleIndexFromDate.isEmpty() ? LocalDate.now() : LocalDate.parse(scheduleIndexFromDate);
+        if (!scheduleIndex.rebuild(scheduleRepository.getScheduleIndexRows(fromDate), loadedVersion, branches, rooms)) {
+            logger.warn("Too many bookings during schedule index rebuild, remaining seats are corrected by the next refresh");
+        }
+        ScheduleIndexStatsDTO stats = scheduleIndex.getStats();
+        logger.info("Schedule index built: {} schedules, ~{} KB", stats.getSchedules(), stats.getMemoryBytes() / 1024);
+    }
+
     @Override
     public List<String> getStartTimes(Integer movieId, Integer branchId, LocalDate startDate) {
-        return scheduleRepository.getStartTimeByMovie_IdAndBranch_IdAndStartDate(movieId,branchId,startDate)
-                .stream().map(localTime -> localTime.format(DateTimeFormatter.ofPattern("HH:mm")))
+        return scheduleIndex.getStartTimes(movieId,branchId,startDate)
+                .stream().map(localTime -> localTime.format(START_TIME_FORMAT))
                 .collect(Collectors.toList());
     }
 
+    // Giờ chiếu của days ngày tính từ fromDate, key là ngày "yyyy-MM-dd" theo thứ tự, ngày không có suất chiếu
+    // vẫn có key với danh sách rỗng để client hiện đủ các ngày
+    @Override
+    public Map<String, List<String>> getStartTimeCalendar(Integer movieId, Integer branchId, LocalDate fromDate, int days) {
+        Map<String, List<String>> calendar = new LinkedHashMap<>();
+        for (int i = 0; i < days; i++) {
+            calendar.put(fromDate.plusDays(i).toString(), new ArrayList<>());
+        }
+        List<Object[]> startTimes = scheduleRepository.getStartTimesByMovie_IdAndBranch_IdAndStartDateBetween(
+                movieId, branchId, fromDate, fromDate.plusDays(days - 1));
+        for (Object[] row : startTimes) {
+            calendar.get(row[0].toString()).add(((LocalTime) row[1]).format(START_TIME_FORMAT));
+        }
+        return calendar;
+    }
+
+    @Override
+    public List<ShowtimeBranchDTO> getShowtimeTree(Integer movieId, LocalDate fromDate, int days) {
+        String key = movieId + "/" + fromDate + "/" + days;
+        ShowtimeTree tree = showtimeTrees.get(key, k -> loadShowtimeTree(movieId, fromDate, days));
+        List<ShowtimeBranchDTO> branches = tree.copyWithBookings(bookedSeatsJournal);
+        while (branches == null) {
+            // Cây cache lâu, đã bán quá nhiều lượt so với nhật ký đang giữ => đọc lại
+            ShowtimeTree reloaded = loadShowtimeTree(movieId, fromDate, days);
+            showtimeTrees.asMap().replace(key, tree, reloaded);
+            tree = reloaded;
+            branches = tree.copyWithBookings(bookedSeatsJournal);
+        }
+        return branches;
+    }
+
+    @EventListener
+    public void onSeatsChanged(SeatsChangedEvent event) {
+        // Giữ / trả ghế không đổi số ghế còn trống đã lưu
+        if (event.getStatus() != SeatsChangedEvent.Status.BOOKED) {
+            return;
+        }
+        // Cây suất chiếu đọc nhật ký lúc trả về, chỉ mục lịch chiếu áp ngay
+        bookedSeatsJournal.record(event.getScheduleId(), event.getSeatIds().size());
+        scheduleIndex.applyBookings();
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getSection() == CatalogChangedEvent.Section.SCHEDULES) {
+            buildScheduleIndex();
+            showtimeTrees.invalidateAll();
+        }
+    }
+
+    // 1 câu lấy các lịch chiếu của phim trong days ngày từ fromDate (đã sắp xếp), gom liền một lượt thành
+    // chi nhánh -> ngày -> giờ -> phòng
+    private ShowtimeTree loadShowtimeTree(Integer movieId, LocalDate fromDate, int days) {
+        ShowtimeTree tree = new ShowtimeTree(bookedSeatsJournal.currentVersion());
+        List<ShowtimeBranchDTO> branches = tree.branches;
+        ShowtimeBranchDTO branch = null;
+        ShowtimeDateDTO date = null;
+        ShowtimeDTO showtime = null;
+        for (Object[] row : scheduleRepository.getShowtimeRowsByMovie_IdAndStartDateBetween(
+                movieId, fromDate, fromDate.plusDays(days - 1))) {
+            int branchId = (Integer) row[5];
+            String startDate = row[1].toString();
+            String startTime = ((LocalTime) row[2]).format(START_TIME_FORMAT);
+            if (branch == null || branch.getId() != branchId) {
+                branch = new ShowtimeBranchDTO();
+                branch.setId(branchId);
+                branch.setName((String) row[6]);
+                branch.setDiaChi((String) row[7]);
+                branches.add(branch);
+                date = null;
+            }
+            if (date == null || !date.getDate().equals(startDate)) {
+                date = new ShowtimeDateDTO();
+                date.setDate(startDate);
+                branch.getDates().add(date);
+                showtime = null;
+            }
+            if (showtime == null || !showtime.getTime().equals(startTime)) {
+                showtime = new ShowtimeDTO();
+                showtime.setTime(startTime);
+                date.getTimes().add(showtime);
+            }
+            ShowtimeRoomDTO room = new ShowtimeRoomDTO();
+            room.setScheduleId((Integer) row[0]);
+            room.setPrice((Double) row[3]);
+            room.setRemainingSeats((Integer) row[4]);
+            room.setRoomId((Integer) row[8]);
+            room.setRoomName((String) row[9]);
+            showtime.getRooms().add(room);
+            tree.positions.put(room.getScheduleId(), tree.positions.size());
+        }
+        tree.bookedSeats = new int[tree.positions.size()];
+        return tree;
+    }
+
+    @Override
+    public ScheduleIndexStatsDTO getScheduleIndexStats() {
+        return scheduleIndex.getStats();
+    }
+
+    // Chỉ kiểm tra, không giữ chỗ: kết quả đúng tại thời điểm gọi
+    @Override
+    public RoomConflictDTO checkRoomConflicts(Integer roomId, Integer movieId, LocalDate startDate, LocalTime startTime) {
+        if (!roomRepository.existsById(roomId)) {
+            throw new IllegalArgumentException("Không tìm thấy phòng " + roomId + "!");
+        }
+        Movie movie = movieRepository.findById(movieId)
+                .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy phim " + movieId + "!"));
+        if (movie.getDuration() <= 0) {
+            throw new IllegalArgumentException("Phim " + movieId + " chưa có thời lượng!");
+        }
+        RoomConflictDTO result = new RoomConflictDTO();
+        result.setRoomId(roomId);
+        result.setMovieId(movieId);
+        result.setStartsAt(startDate.atTime(startTime).toString());
+        result.setEndsAt(startDate.atTime(startTime).plusMinutes(movie.getDuration()).toString());
+        result.setCleaningMinutes(roomConflictDetector.getCleaningMinutes());
+        result.setConflictingScheduleIds(
+                roomConflictDetector.findConflicts(roomId, startDate, startTime, movie.getDuration()));
+        result.setConflict(!result.getConflictingScheduleIds().isEmpty());
+        return result;
+    }
+
     @Override
     public List<ScheduleDTO> getSchedules(Integer movieId, Integer branchId, String startDate, String startTime,Integer roomId) {
-        return scheduleRepository.getSchedulesByMovie_IdAndBranch_IdAndStartDateAndStartTimeAndRoom_Id(movieId,branchId
-                        ,LocalDate.parse(startDate),LocalTime.parse(startTime), roomId)
-                .stream().map(schedule -> modelMapper.map(schedule,ScheduleDTO.class))
+        // Chỉ mục cho ra id lịch, dto cần cả phim / chi nhánh / phòng nên đọc các lịch đó theo khoá chính
+        List<Integer> scheduleIds = scheduleIndex.getScheduleIds(movieId, branchId,
+                LocalDate.parse(startDate), LocalTime.parse(startTime), roomId);
+        if (scheduleIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return scheduleRepository.findAllById(scheduleIds)
+                .stream().map(schedule -> {
+                    ScheduleDTO scheduleDTO = modelMapper.map(schedule,ScheduleDTO.class);
+                    // Số ghế còn trống là của phòng trong lịch này nên gắn cả vào phòng
+                    if (scheduleDTO.getRoom() != null) {
+                        scheduleDTO.getRoom().setRemainingSeats(schedule.getRemainingSeats());
+                    }
+                    return scheduleDTO;
+                })
                 .collect(Collectors.toList());
     }
+
+    // Cây đã dựng chỉ là khuôn, không trả thẳng ra ngoài: response đang serialize không bị sửa giữa chừng.
+    // Số ghế đã bán từ lúc đọc nằm riêng theo vị trí lá (thứ tự duyệt cây), cây bị loại khỏi cache là mất theo
+    private static class ShowtimeTree {
+        private final List<ShowtimeBranchDTO> branches = new ArrayList<>();
+        // id lịch -> vị trí lá
+        private final Map<Integer, Integer> positions = new HashMap<>();
+        private int[] bookedSeats;
+        // Version nhật ký bán vé đã có trong số ghế còn trống của cây
+        private long version;
+
+        ShowtimeTree(long version) {
+            this.version = version;
+        }
+
+        // Null nếu nhật ký không còn giữ đủ các lượt bán từ lúc đọc cây
+        List<ShowtimeBranchDTO> copyWithBookings(BookedSeatsJournal journal) {
+            int[] booked;
+            synchronized (this) {
+                long replayed = journal.replay(version, (scheduleId, count) -> {
+                    Integer position = positions.get(scheduleId);
+                    if (position != null) {
+                        bookedSeats[position] += count;
+                    }
+                });
+                if (replayed < 0) {
+                    return null;
+                }
+                version = replayed;
+                booked = bookedSeats.clone();
+            }
+            List<ShowtimeBranchDTO> copy = new ArrayList<>(branches.size());
+            int position = 0;
+            for (ShowtimeBranchDTO branch : branches) {
+                ShowtimeBranchDTO branchCopy = new ShowtimeBranchDTO();
+                branchCopy.setId(branch.getId());
+                branchCopy.setName(branch.getName());
+                branchCopy.setDiaChi(branch.getDiaChi());
+                for (ShowtimeDateDTO date : branch.getDates()) {
+                    ShowtimeDateDTO dateCopy = new ShowtimeDateDTO();
+                    dateCopy.setDate(date.getDate());
+                    for (ShowtimeDTO showtime : date.getTimes()) {
+                        ShowtimeDTO showtimeCopy = new ShowtimeDTO();
+                        showtimeCopy.setTime(showtime.getTime());
+                        for (ShowtimeRoomDTO room : showtime.getRooms()) {
+                            ShowtimeRoomDTO roomCopy = new ShowtimeRoomDTO();
+                            roomCopy.setScheduleId(room.getScheduleId());
+                            roomCopy.setRoomId(room.getRoomId());
+                            roomCopy.setRoomName(room.getRoomName());
+                            roomCopy.setPrice(room.getPrice());
+                            roomCopy.setRemainingSeats(room.getRemainingSeats() == null
+                                    ? null : room.getRemainingSeats() - booked[position]);
+                            showtimeCopy.getRooms().add(roomCopy);
+                            position++;
+                        }
+                        dateCopy.getTimes().add(showtimeCopy);
+                    }
+                    branchCopy.getDates().add(dateCopy);
+                }
+                copy.add(branchCopy);
+            }
+            return copy;
+        }
+    }
 }
@@ -0,0 +1,203 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.dtos.BookingRequestDTO;
+import com.example.cinema_back_end.dtos.SeatHoldDTO;
+import com.example.cinema_back_end.events.SeatsChangedEvent;
+import com.example.cinema_back_end.utils.HashedWheelTimer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Giữ ghế trong lúc khách thanh toán: ghế được giành trong kho ghế ngay khi giữ,
+// hết hạn thì bánh xe hẹn giờ tự trả ghế lại kho.
+// Mỗi khách chỉ có 1 lượt giữ còn hạn trên 1 lịch chiếu và mỗi lượt giữ tối đa max-seats ghế, để 1 tài khoản
+// không giữ hết phòng bằng cách gọi giữ ghế liên tục.
+@Service
+public class SeatHoldService implements ISeatHoldService {
+    @Autowired
+    private SeatInventory seatInventory;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${cinema.seat-hold.ttl-seconds:600}")
+    private long ttlSeconds;
+    @Value("${cinema.seat-hold.max-seats:8}")
+    private int maxSeats;
+
+    // Mỗi ô 1 giây, 1024 ô => 1 vòng ~17 phút, lượt giữ dài hơn thì chỉ đếm thêm vòng
+    private final HashedWheelTimer expiryTimer = new HashedWheelTimer("seat-hold-expiry", 1, TimeUnit.SECONDS, 1024);
+    private final ConcurrentHashMap<String, SeatHold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<Integer>> heldSeatsBySchedule = new ConcurrentHashMap<>();
+    // "userId:scheduleId" -> leaseId của lượt giữ còn hạn
+    private final ConcurrentHashMap<String, String> leaseByUserSchedule = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void startExpiryTimer() {
+        expiryTimer.start();
+    }
+
+    @PreDestroy
+    public void stopExpiryTimer() {
+        expiryTimer.stop();
+    }
+
+    @Override
+    public SeatHoldDTO holdSeats(BookingRequestDTO bookingRequestDTO) throws RuntimeException {
+        if (bookingRequestDTO.getUserId() == null) {
+            throw new BookingRejectedException("Bạn cần đăng nhập để giữ ghế!");
+        }
+        List<Integer> seatIds = bookingRequestDTO.getListSeatIds() == null
+                ? null : new ArrayList<>(bookingRequestDTO.getListSeatIds());
+        if (seatIds != null && seatIds.size() > maxSeats) {
+            throw new BookingRejectedException("Mỗi lượt chỉ được giữ tối đa " + maxSeats + " ghế!");
+        }
+        // Giành chỗ cho lượt giữ trước khi giành ghế: 2 request cùng lúc của 1 khách thì chỉ 1 request đi tiếp
+        String leaseId = UUID.randomUUID().toString();
+        String userSchedule = userSchedule(bookingRequestDTO.getUserId(), bookingRequestDTO.getScheduleId());
+        if (leaseByUserSchedule.putIfAbsent(userSchedule, leaseId) != null) {
+            throw new BookingRejectedException("Bạn đang giữ ghế của suất chiếu này, hãy thanh toán hoặc trả ghế trước!");
+        }
+        boolean claimed = false;
+        try {
+            claimed = seatInventory.claim(bookingRequestDTO.getScheduleId(), seatIds);
+        } finally {
+            // Ghế không thuộc phòng / lịch chiếu không tồn tại cũng phải trả chỗ cho lượt giữ
+            if (!claimed) {
+                leaseByUserSchedule.remove(userSchedule, leaseId);
+            }
+        }
+        if (!claimed) {
+            throw new BookingRejectedException("Đã có người nhanh tay hơn đặt ghế, mời bạn chọn lại!");
+        }
+
+        SeatHold hold = new SeatHold(leaseId, bookingRequestDTO.getUserId(),
+                bookingRequestDTO.getScheduleId(), seatIds, LocalDateTime.now().plusSeconds(ttlSeconds));
+        addHeldSeats(hold.scheduleId, hold.seatIds);
+        hold.timeout = expiryTimer.newTimeout(() -> expire(hold), ttlSeconds, TimeUnit.SECONDS);
+        holds.put(hold.leaseId, hold);
+        eventPublisher.publishEvent(new SeatsChangedEvent(hold.scheduleId, hold.seatIds, SeatsChangedEvent.Status.HELD));
+        return toDTO(hold);
+    }
+
+    @Override
+    public void releaseHold(String leaseId, Integer userId) {
+        SeatHold hold = holds.get(leaseId);
+        if (hold == null || !hold.userId.equals(userId) || !holds.remove(leaseId, hold)) {
+            return;
+        }
+        hold.timeout.cancel();
+        freeSeats(hold);
+    }
+
+    // Chuyển lượt giữ ghế thành vé: ghế vẫn nằm trong kho ghế, nếu transaction roll back thì trả ghế lại
+    @Override
+    public List<Integer> consumeHoldForCurrentTransaction(String leaseId, Integer userId, Integer scheduleId) throws RuntimeException {
+        SeatHold hold = holds.get(leaseId);
+        if (hold == null) {
+            throw new BookingRejectedException("Đã hết thời gian giữ ghế, mời bạn chọn lại!");
+        }
+        if (!hold.userId.equals(userId) || !hold.scheduleId.equals(scheduleId)) {
+            throw new BookingRejectedException("Lượt giữ ghế không hợp lệ!");
+        }
+        if (!holds.remove(leaseId, hold)) {
+            throw new BookingRejectedException("Đã hết thời gian giữ ghế, mời bạn chọn lại!");
+        }
+        hold.timeout.cancel();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // Đặt vé thành công thì BillService báo ghế đã bán, còn roll back thì trả ghế lại như lúc hết hạn
+                if (status == STATUS_COMMITTED) {
+                    removeHeldSeats(hold.scheduleId, hold.seatIds);
+                    leaseByUserSchedule.remove(userSchedule(hold.userId, hold.scheduleId), hold.leaseId);
+                    seatInventory.confirm(hold.scheduleId);
+                } else {
+                    freeSeats(hold);
+                }
+            }
+        });
+        return hold.seatIds;
+    }
+
+    @Override
+    public Set<Integer> getHeldSeatIds(Integer scheduleId) {
+        Set<Integer> heldSeatIds = heldSeatsBySchedule.get(scheduleId);
+        return heldSeatIds == null ? Collections.emptySet() : Collections.unmodifiableSet(heldSeatIds);
+    }
+
+    // Chạy trên luồng của bánh xe hẹn giờ
+    private void expire(SeatHold hold) {
+        if (holds.remove(hold.leaseId, hold)) {
+            freeSeats(hold);
+        }
+    }
+
+    private void freeSeats(SeatHold hold) {
+        removeHeldSeats(hold.scheduleId, hold.seatIds);
+        seatInventory.release(hold.scheduleId, hold.seatIds);
+        leaseByUserSchedule.remove(userSchedule(hold.userId, hold.scheduleId), hold.leaseId);
+        eventPublisher.publishEvent(new SeatsChangedEvent(hold.scheduleId, hold.seatIds, SeatsChangedEvent.Status.RELEASED));
+    }
+
+    private void addHeldSeats(Integer scheduleId, List<Integer> seatIds) {
+        heldSeatsBySchedule.compute(scheduleId, (id, heldSeatIds) -> {
+            if (heldSeatIds == null) {
+                heldSeatIds = ConcurrentHashMap.newKeySet();
+            }
+            heldSeatIds.addAll(seatIds);
+            return heldSeatIds;
+        });
+    }
+
+    private void removeHeldSeats(Integer scheduleId, List<Integer> seatIds) {
+        heldSeatsBySchedule.computeIfPresent(scheduleId, (id, heldSeatIds) -> {
+            heldSeatIds.removeAll(seatIds);
+            return heldSeatIds.isEmpty() ? null : heldSeatIds;
+        });
+    }
+
+    private static String userSchedule(Integer userId, Integer scheduleId) {
+        return userId + ":" + scheduleId;
+    }
+
+    private SeatHoldDTO toDTO(SeatHold hold) {
+        SeatHoldDTO seatHoldDTO = new SeatHoldDTO();
+        seatHoldDTO.setLeaseId(hold.leaseId);
+        seatHoldDTO.setScheduleId(hold.scheduleId);
+        seatHoldDTO.setListSeatIds(hold.seatIds);
+        seatHoldDTO.setTtlSeconds(ttlSeconds);
+        seatHoldDTO.setExpiresAt(hold.expiresAt);
+        return seatHoldDTO;
+    }
+
+    private static class SeatHold {
+        private final String leaseId;
+        private final Integer userId;
+        private final Integer scheduleId;
+        private final List<Integer> seatIds;
+        private final LocalDateTime expiresAt;
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        SeatHold(String leaseId, Integer userId, Integer scheduleId, List<Integer> seatIds, LocalDateTime expiresAt) {
+            this.leaseId = leaseId;
+            this.userId = userId;
+            this.scheduleId = scheduleId;
+            this.seatIds = seatIds;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.repositories.ITicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Kho ghế trong bộ nhớ: mỗi lịch chiếu giữ 1 bitset, bit i = ghế thứ i của phòng đã có người giữ.
+// Đặt vé sẽ giành toàn bộ ghế bằng compare-and-set trước, chỉ khi thành công mới ghi xuống db.
+// Mỗi lượt giành thành công phải kết thúc bằng release (trả ghế) hoặc confirm (ghế đã thành vé trong db); lịch chiếu
+// đã bắt đầu mà không còn lượt nào dở dang thì bitset được bỏ khỏi bộ nhớ.
+@Component
+public class SeatInventory {
+    private static final Logger logger = LoggerFactory.getLogger(SeatInventory.class);
+
+    @Autowired
+    private SeatLayoutCache seatLayoutCache;
+    @Autowired
+    private ITicketRepository ticketRepository;
+    @Autowired
+    private IScheduleRepository scheduleRepository;
+
+    @Value("${cinema.seat-inventory.eviction-minutes:10}")
+    private long evictionMinutes;
+
+    private final ConcurrentHashMap<Integer, ScheduleSeats> schedules = new ConcurrentHashMap<>();
+    private ScheduledExecutorService evictor;
+
+    // <= 0 là tắt, kho giữ mọi lịch chiếu đã từng dùng tới
+    @PostConstruct
+    public void startEviction() {
+        if (evictionMinutes <= 0) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-inventory-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> {
+            // Lỗi 1 lần (mất kết nối db...) không được làm dừng các lần sau
+            try {
+                evictStartedSchedules();
+            } catch (RuntimeException e) {
+                logger.warn("Seat inventory eviction failed", e);
+            }
+        }, evictionMinutes, evictionMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stopEviction() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+    }
+
+    // Dựng lại kho ghế từ bảng ticket khi app khởi động, chỉ các lịch chưa bắt đầu
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Integer> bookedScheduleIds = notStarted(ticketRepository.getBookedScheduleIds());
+        bookedScheduleIds.forEach(this::getScheduleSeats);
+        logger.info("Seat inventory rebuilt for {} schedules", bookedScheduleIds.size());
+    }
+
+    // Bỏ bitset của các lịch chiếu đã bắt đầu (hoặc đã bị xoá). Lịch còn lượt giữ / lượt giành chưa xong thì để lại
+    // vì các ghế đó chưa có trong db; bị bỏ rồi mà có người dùng tới thì dựng lại từ bảng ticket như lần đầu
+    public void evictStartedSchedules() {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        Set<Integer> notStarted = new HashSet<>(notStarted(new ArrayList<>(schedules.keySet())));
+        int evicted = 0;
+        for (Integer scheduleId : schedules.keySet()) {
+            if (!notStarted.contains(scheduleId)
+                    && schedules.computeIfPresent(scheduleId, (id, scheduleSeats) -> scheduleSeats.retire() ? null : scheduleSeats) == null) {
+                evicted++;
+            }
+        }
+        logger.debug("Seat inventory evicted {} started schedules, {} left", evicted, schedules.size());
+    }
+
+    // Giành tất cả các ghế hoặc không giành ghế nào. Trả về false nếu có ghế đã bị giữ.
+    // Giành được thì người gọi phải release hoặc confirm
+    public boolean claim(Integer scheduleId, List<Integer> seatIds) {
+        ScheduleSeats scheduleSeats = acquireScheduleSeats(scheduleId);
+        boolean claimed = false;
+        try {
+            claimed = scheduleSeats.claim(scheduleSeats.indexesOf(seatIds));
+            return claimed;
+        } finally {
+            if (!claimed) {
+                scheduleSeats.inUse.decrementAndGet();
+            }
+        }
+    }
+
+    // Giành ghế trong transaction hiện tại, nếu transaction roll back thì tự trả lại ghế
+    public boolean claimForCurrentTransaction(Integer scheduleId, List<Integer> seatIds) {
+        ScheduleSeats scheduleSeats = acquireScheduleSeats(scheduleId);
+        int[] indexes;
+        try {
+            indexes = scheduleSeats.indexesOf(seatIds);
+        } catch (RuntimeException e) {
+            scheduleSeats.inUse.decrementAndGet();
+            throw e;
+        }
+        if (!scheduleSeats.claim(indexes)) {
+            scheduleSeats.inUse.decrementAndGet();
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    scheduleSeats.release(indexes);
+                }
+                scheduleSeats.inUse.decrementAndGet();
+            }
+        });
+        return true;
+    }
+
+    // Trả ghế của 1 lượt giành bằng claim
+    public void release(Integer scheduleId, List<Integer> seatIds) {
+        ScheduleSeats scheduleSeats = schedules.get(scheduleId);
+        if (scheduleSeats != null) {
+            scheduleSeats.release(scheduleSeats.indexesOf(seatIds));
+            scheduleSeats.inUse.decrementAndGet();
+        }
+    }
+
+    // Ghế của 1 lượt giành bằng claim đã thành vé (transaction đã commit), bit giữ nguyên
+    public void confirm(Integer scheduleId) {
+        ScheduleSeats scheduleSeats = schedules.get(scheduleId);
+        if (scheduleSeats != null) {
+            scheduleSeats.inUse.decrementAndGet();
+        }
+    }
+
+    // Db báo ghế đã bán (vd đặt từ node khác) mà kho không biết => lần truy cập sau gộp (OR) các ghế đã bán trong db
+    // vào kho hiện có. Không bỏ kho đi dựng lại vì sẽ mất các ghế đang giữ / đang giành chưa có vé trong db.
+    // Đánh dấu sau khi transaction hiện tại kết thúc: ghế vừa giành được trả lại lúc roll back trước, không xoá mất
+    // bit của ghế vừa gộp từ db
+    public void reconcileAfterCurrentTransaction(Integer scheduleId) {
+        ScheduleSeats scheduleSeats = schedules.get(scheduleId);
+        if (scheduleSeats == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            scheduleSeats.stale.set(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                scheduleSeats.stale.set(true);
+            }
+        });
+    }
+
+    // Lượt giành đang dùng bitset này thì không bị bỏ khỏi kho; vừa bị bỏ thì lấy bitset mới
+    private ScheduleSeats acquireScheduleSeats(Integer scheduleId) {
+        while (true) {
+            ScheduleSeats scheduleSeats = getScheduleSeats(scheduleId);
+            scheduleSeats.inUse.incrementAndGet();
+            if (!scheduleSeats.retired) {
+                return scheduleSeats;
+            }
+            scheduleSeats.inUse.decrementAndGet();
+        }
+    }
+
+    private List<Integer> notStarted(Collection<Integer> scheduleIds) {
+        if (scheduleIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return scheduleRepository.getNotStartedScheduleIds(scheduleIds, now.toLocalDate(), now.toLocalTime());
+    }
+
+    private ScheduleSeats getScheduleSeats(Integer scheduleId) {
+        if (scheduleId == null) {
+            throw new BookingRejectedException("Lịch chiếu không tồn tại!");
+        }
+        ScheduleSeats scheduleSeats = schedules.get(scheduleId);
+        if (scheduleSeats != null) {
+            if (scheduleSeats.stale.compareAndSet(true, false)) {
+                markBooked(scheduleSeats, ticketRepository.getSeatIdsBySchedule_Id(scheduleId));
+            }
+            return scheduleSeats;
+        }
+        // Không cache lịch không tồn tại để tránh bị nhồi id rác vào bộ nhớ
+        SeatLayout layout = seatLayoutCache.getLayoutBySchedule(scheduleId);
+        if (layout.size() == 0) {
+            throw new BookingRejectedException("Lịch chiếu không tồn tại!");
+        }
+        return schedules.computeIfAbsent(scheduleId, id -> {
+            ScheduleSeats loaded = new ScheduleSeats(layout);
+            markBooked(loaded, ticketRepository.getSeatIdsBySchedule_Id(id));
+            return loaded;
+        });
+    }
+
+    // Bật bit của các ghế đã có vé, bit đã bật (ghế đang giữ / đang giành) thì giữ nguyên
+    private static void markBooked(ScheduleSeats scheduleSeats, List<Integer> bookedSeatIds) {
+        bookedSeatIds.forEach(seatId -> {
+            int index = scheduleSeats.layout.indexOf(seatId);
+            if (index >= 0) {
+                scheduleSeats.set(index);
+            }
+        });
+    }
+
+    private static class ScheduleSeats {
+        // Sơ đồ ghế dùng chung với SeatLayoutCache => vị trí ghế trong phòng chính là vị trí bit
+        private final SeatLayout layout;
+        private final AtomicLongArray bits;
+        // Db có vé mà kho chưa biết, cần gộp lại trước lần dùng sau
+        private final AtomicBoolean stale = new AtomicBoolean();
+        // Số lượt giành chưa release / confirm: ghế của các lượt này chỉ có trong bộ nhớ
+        private final AtomicInteger inUse = new AtomicInteger();
+        // Đã bỏ khỏi kho, lượt giành mới phải lấy bitset khác
+        private volatile boolean retired;
+
+        ScheduleSeats(SeatLayout layout) {
+            this.layout = layout;
+            this.bits = new AtomicLongArray((layout.size() + 63) >>> 6);
+        }
+
+        // Gọi trong computeIfPresent của kho. Đặt cờ rồi đọc lại inUse: lượt giành tăng inUse rồi mới đọc cờ nên
+        // ít nhất 1 bên thấy bên kia
+        boolean retire() {
+            if (inUse.get() != 0) {
+                return false;
+            }
+            retired = true;
+            if (inUse.get() != 0) {
+                retired = false;
+                return false;
+            }
+            return true;
+        }
+
+        int[] indexesOf(List<Integer> requestedSeatIds) {
+            if (requestedSeatIds == null || requestedSeatIds.isEmpty()) {
+                throw new BookingRejectedException("Bạn chưa chọn ghế!");
+            }
+            int[] indexes = new int[requestedSeatIds.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                Integer seatId = requestedSeatIds.get(i);
+                int index = seatId == null ? -1 : layout.indexOf(seatId);
+                if (index < 0) {
+                    throw new BookingRejectedException("Ghế không thuộc phòng chiếu này!");
+                }
+                indexes[i] = index;
+            }
+            return indexes;
+        }
+
+        boolean claim(int[] indexes) {
+            for (int i = 0; i < indexes.length; i++) {
+                if (!set(indexes[i])) {
+                    for (int j = 0; j < i; j++) {
+                        clear(indexes[j]);
+                    }
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void release(int[] indexes) {
+            for (int index : indexes) {
+                clear(index);
+            }
+        }
+
+        boolean set(int index) {
+            int word = index >>> 6;
+            long mask = 1L << index;
+            while (true) {
+                long current = bits.get(word);
+                if ((current & mask) != 0) {
+                    return false;
+                }
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    return true;
+                }
+            }
+        }
+
+        void clear(int index) {
+            int word = index >>> 6;
+            long mask = 1L << index;
+            while (true) {
+                long current = bits.get(word);
+                if (bits.compareAndSet(word, current, current & ~mask)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.cinema_back_end.services;
+
+import java.util.Arrays;
+
+// Sơ đồ ghế của 1 phòng, không đổi sau khi tạo: id ghế tăng dần và tên ghế tương ứng theo vị trí
+public final class SeatLayout {
+    private final int[] seatIds;
+    private final String[] seatNames;
+
+    SeatLayout(int[] seatIds, String[] seatNames) {
+        this.seatIds = seatIds;
+        this.seatNames = seatNames;
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    public int seatIdAt(int index) {
+        return seatIds[index];
+    }
+
+    public String seatNameAt(int index) {
+        return seatNames[index];
+    }
+
+    // Vị trí của ghế trong phòng, âm nếu ghế không thuộc phòng này
+    public int indexOf(int seatId) {
+        return Arrays.binarySearch(seatIds, seatId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.repositories.ISeatRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+// Sơ đồ ghế của phòng gần như không bao giờ đổi nên chỉ đọc db 1 lần cho mỗi phòng và mỗi lịch chiếu,
+// nạp khi cần và giới hạn số lượng giữ trong bộ nhớ.
+@Component
+public class SeatLayoutCache {
+    @Autowired
+    private ISeatRepository seatRepository;
+    @Autowired
+    private IScheduleRepository scheduleRepository;
+
+    @Value("${cinema.seat-layout.max-rooms:1000}")
+    private long maxRooms;
+    @Value("${cinema.seat-layout.max-schedules:100000}")
+    private long maxSchedules;
+
+    private LoadingCache<Integer, SeatLayout> roomLayouts;
+    private LoadingCache<Integer, Integer> scheduleRooms;
+
+    @PostConstruct
+    public void createCaches() {
+        roomLayouts = Caffeine.newBuilder()
+                .maximumSize(maxRooms)
+                .build(this::loadRoomLayout);
+        // Lịch không tồn tại thì loader trả null và Caffeine không lưu lại
+        scheduleRooms = Caffeine.newBuilder()
+                .maximumSize(maxSchedules)
+                .build(scheduleRepository::getRoomIdById);
+    }
+
+    public SeatLayout getLayoutBySchedule(Integer scheduleId) {
+        Integer roomId = scheduleId == null ? null : scheduleRooms.get(scheduleId);
+        if (roomId == null) {
+            throw new BookingRejectedException("Lịch chiếu không tồn tại!");
+        }
+        return roomLayouts.get(roomId);
+    }
+
+    private SeatLayout loadRoomLayout(Integer roomId) {
+        List<Object[]> rows = seatRepository.getSeatLayoutByRoom_Id(roomId);
+        int[] seatIds = new int[rows.size()];
+        String[] seatNames = new String[rows.size()];
+        for (int i = 0; i < seatIds.length; i++) {
+            seatIds[i] = (Integer) rows.get(i)[0];
+            seatNames[i] = (String) rows.get(i)[1];
+        }
+        return new SeatLayout(seatIds, seatNames);
+    }
+}
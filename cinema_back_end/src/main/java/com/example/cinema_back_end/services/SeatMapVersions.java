@@ -0,0 +1,28 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.events.SeatsChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Mỗi lịch chiếu có 1 version tăng dần, tăng sau mỗi lần ghế đổi trạng thái.
+// Cùng version => sơ đồ ghế không đổi, trả 304 mà không cần đọc db.
+@Component
+public class SeatMapVersions {
+    // Version chỉ nằm trong bộ nhớ nên gắn thêm thời điểm khởi động để ETag cũ không khớp sau khi restart
+    private final long epoch = System.currentTimeMillis();
+    private final ConcurrentHashMap<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSeatsChanged(SeatsChangedEvent event) {
+        versions.computeIfAbsent(event.getScheduleId(), id -> new AtomicLong()).incrementAndGet();
+    }
+
+    // Phải lấy ETag trước khi đọc sơ đồ ghế: nếu có lượt đặt chen vào giữa thì lần sau chỉ mất 1 lần 304
+    public String getETag(Integer scheduleId) {
+        AtomicLong version = versions.get(scheduleId);
+        return "\"s" + scheduleId + "-" + epoch + "-" + (version == null ? 0 : version.get()) + "\"";
+    }
+}
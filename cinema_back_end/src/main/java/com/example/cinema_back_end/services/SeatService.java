@@ -1,51 +1,56 @@
 package com.example.cinema_back_end.services;
 
 import com.example.cinema_back_end.dtos.SeatDTO;
-import com.example.cinema_back_end.entities.Room;
-import com.example.cinema_back_end.entities.Seat;
-import com.example.cinema_back_end.repositories.IScheduleRepository;
-import com.example.cinema_back_end.repositories.ISeatRepository;
 import com.example.cinema_back_end.repositories.ITicketRepository;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class SeatService implements ISeatService{
     @Autowired
-    private ISeatRepository seatRepository;
-    @Autowired
-    private IScheduleRepository scheduleRepository;
+    private SeatLayoutCache seatLayoutCache;
     @Autowired
     private ITicketRepository ticketRepository;
     @Autowired
-    private ModelMapper modelMapper;
+    private ISeatHoldService seatHoldService;
 
     @Override
     public List<SeatDTO> getSeatsByScheduleId(Integer scheduleId) {
-        // Lấy ra các chỗ ngồi của phòng trong lịch đó
-        Room room = scheduleRepository.getById(scheduleId).getRoom();
-        List<Seat> listSeat = seatRepository.getSeatByRoom_Id(room.getId());
+        // Lấy ra sơ đồ ghế của phòng trong lịch đó từ cache, chỉ còn ghế đã có người là phải đọc db
+        SeatLayout layout = seatLayoutCache.getLayoutBySchedule(scheduleId);
 
-        // Lấy ra các vé đã được đặt trong lịch đó rồi map sang các chỗ ngồi
-        List<Seat> occupiedSeats = ticketRepository.findTicketsBySchedule_Id(scheduleId)
-                .stream().map(ticket -> ticket.getSeat())
-                .collect(Collectors.toList());
+        // Đánh dấu ghế đã có người vào bitmap theo vị trí ghế trong phòng
+        BitSet occupiedSeats = new BitSet(layout.size());
+        // Chỉ lấy id ghế của các vé đã bán, không load cả entity vé
+        markOccupied(occupiedSeats, layout, ticketRepository.getSeatIdsBySchedule_Id(scheduleId));
+        // Ghế đang có người giữ để thanh toán cũng hiện là đã có người
+        markOccupied(occupiedSeats, layout, seatHoldService.getHeldSeatIds(scheduleId));
 
-        // Map list chỗ ngồi của phòng ở bước 1 sang list dto
-        List<SeatDTO> filteredSeats = listSeat.stream().map(seat -> {
-           SeatDTO seatDTO = modelMapper.map(seat,SeatDTO.class);
-           if(occupiedSeats.stream()
-                   .map(occupiedSeat->occupiedSeat.getId())
-                   .collect(Collectors.toList()).contains(seat.getId())){
-               seatDTO.setIsOccupied(1); // Nếu ghế nào nằm trong list ghế đã được occupied thì set = 1
-           }
-           return seatDTO;
-        }).collect(Collectors.toList());
+        // Map sơ đồ ghế sang list dto trong 1 lượt duyệt
+        List<SeatDTO> filteredSeats = new ArrayList<>(layout.size());
+        for (int i = 0; i < layout.size(); i++) {
+            SeatDTO seatDTO = new SeatDTO();
+            seatDTO.setId(layout.seatIdAt(i));
+            seatDTO.setName(layout.seatNameAt(i));
+            if (occupiedSeats.get(i)) {
+                seatDTO.setIsOccupied(1); // Nếu ghế nào nằm trong list ghế đã được occupied thì set = 1
+            }
+            filteredSeats.add(seatDTO);
+        }
+        return filteredSeats;
+    }
 
-        return  filteredSeats;
+    private void markOccupied(BitSet occupiedSeats, SeatLayout layout, Collection<Integer> seatIds) {
+        for (Integer seatId : seatIds) {
+            int index = seatId == null ? -1 : layout.indexOf(seatId);
+            if (index >= 0) {
+                occupiedSeats.set(index);
+            }
+        }
     }
 }
@@ -0,0 +1,240 @@
+package com.example.cinema_back_end.services;
+
+import com.example.cinema_back_end.events.SeatsChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Đẩy thay đổi ghế của từng lịch chiếu tới các trình duyệt đang mở trang chọn ghế qua Server-Sent Events.
+// Kết nối SSE là async nên không chiếm luồng nào khi đang rảnh; mỗi người nghe có 1 hàng đợi riêng có giới hạn,
+// do vài luồng gửi dùng chung xả ra. Người nghe chậm để hàng đợi đầy thì bị ngắt, không làm chậm người đặt vé:
+// luồng đổi ghế chỉ xếp hàng / đánh dấu ngắt, mọi lệnh send / complete trên emitter đều chạy trên luồng gửi.
+// Api mở không cần đăng nhập nên chỉ nhận lịch chiếu có thật và giới hạn số kết nối theo lịch / theo địa chỉ ip.
+@Component
+public class SeatStreamService {
+    @Autowired
+    private SeatLayoutCache seatLayoutCache;
+
+    @Value("${cinema.seat-stream.timeout-minutes:30}")
+    private long timeoutMinutes;
+    @Value("${cinema.seat-stream.queue-size:64}")
+    private int queueSize;
+    @Value("${cinema.seat-stream.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+    @Value("${cinema.seat-stream.sender-threads:16}")
+    private int senderThreads;
+    @Value("${cinema.seat-stream.send-timeout-seconds:10}")
+    private long sendTimeoutSeconds;
+    @Value("${cinema.seat-stream.max-per-schedule:2000}")
+    private int maxPerSchedule;
+    @Value("${cinema.seat-stream.max-per-address:10}")
+    private int maxPerAddress;
+
+    private final ConcurrentHashMap<Integer, List<Subscriber>> subscribersBySchedule = new ConcurrentHashMap<>();
+    // Chỉ đọc / ghi trong register / unsubscribe (synchronized), đăng ký / huỷ hiếm hơn nhiều so với đổi ghế
+    private final Map<String, Integer> subscriberCountByAddress = new HashMap<>();
+    private ThreadPoolExecutor senders;
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    public void start() {
+        // Tối đa senderThreads luồng, chỉ tạo khi có việc và tự dừng khi rảnh: vài socket bị treo giữ luồng
+        // cũng không làm kẹt những người nghe khác
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemon("seat-stream-sender"));
+        senders.allowCoreThreadTimeOut(true);
+        heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("seat-stream-heartbeat"));
+        // Proxy / trình duyệt hay cắt kết nối im lặng quá lâu nên thỉnh thoảng gửi 1 dòng comment
+        heartbeat.scheduleAtFixedRate(() -> subscribersBySchedule.values()
+                        .forEach(subscribers -> subscribers.forEach(subscriber -> {
+                            subscriber.closeIfStuck();
+                            subscriber.offer(() -> SseEmitter.event().comment("hb"));
+                        })),
+                heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        subscribersBySchedule.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    // IllegalArgumentException nếu lịch chiếu không tồn tại, IllegalStateException nếu quá số kết nối cho phép
+    public SseEmitter subscribe(Integer scheduleId, String address) {
+        try {
+            // Đọc từ cache phòng của lịch, không tốn câu db nào với lịch đã gặp
+            seatLayoutCache.getLayoutBySchedule(scheduleId);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Lịch chiếu không tồn tại!");
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(scheduleId, address, emitter);
+        if (!register(subscriber)) {
+            throw new IllegalStateException("Quá nhiều kết nối theo dõi ghế!");
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    // Chạy trên luồng vừa đổi ghế (sau commit hoặc luồng hẹn giờ hết hạn giữ ghế), chỉ xếp hàng chứ không gửi
+    @EventListener
+    public void onSeatsChanged(SeatsChangedEvent event) {
+        List<Subscriber> subscribers = subscribersBySchedule.get(event.getScheduleId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        // Gói gọn: {"status":"sold","seatIds":[12,13]}, dựng 1 lần cho mọi người nghe
+        String delta = "{\"status\":\"" + toStatus(event.getStatus()) + "\",\"seatIds\":["
+                + event.getSeatIds().stream().map(String::valueOf).collect(Collectors.joining(",")) + "]}";
+        // Builder của Spring bị sửa mỗi lần send (thêm dòng / data vào set bên trong, không thread-safe) nên
+        // chỉ chia sẻ chuỗi json, mỗi lần gửi dựng builder mới ngay trên luồng gửi
+        subscribers.forEach(subscriber -> subscriber.offer(() -> SseEmitter.event().name("seats").data(delta)));
+    }
+
+    private synchronized boolean register(Subscriber subscriber) {
+        List<Subscriber> subscribers = subscribersBySchedule.get(subscriber.scheduleId);
+        int fromAddress = subscriberCountByAddress.getOrDefault(subscriber.address, 0);
+        if ((subscribers != null && subscribers.size() >= maxPerSchedule) || fromAddress >= maxPerAddress) {
+            return false;
+        }
+        subscribersBySchedule.computeIfAbsent(subscriber.scheduleId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        subscriberCountByAddress.put(subscriber.address, fromAddress + 1);
+        return true;
+    }
+
+    // Có thể bị gọi nhiều lần cho 1 người nghe (ngắt, complete, timeout, lỗi), chỉ lần đầu trừ số đếm
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        List<Subscriber> subscribers = subscribersBySchedule.get(subscriber.scheduleId);
+        if (subscribers == null || !subscribers.remove(subscriber)) {
+            return;
+        }
+        if (subscribers.isEmpty()) {
+            subscribersBySchedule.remove(subscriber.scheduleId);
+        }
+        subscriberCountByAddress.computeIfPresent(subscriber.address, (address, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private static String toStatus(SeatsChangedEvent.Status status) {
+        switch (status) {
+            case HELD:
+                return "held";
+            case BOOKED:
+                return "sold";
+            default:
+                return "released";
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class Subscriber {
+        private final Integer scheduleId;
+        private final String address;
+        private final SseEmitter emitter;
+        // Mỗi phần tử dựng ra 1 builder mới cho đúng 1 lần send
+        private final ArrayBlockingQueue<Supplier<SseEmitter.SseEventBuilder>> queue = new ArrayBlockingQueue<>(queueSize);
+        // Mỗi người nghe chỉ có tối đa 1 lượt xả hàng đợi đang chờ chạy => thứ tự sự kiện được giữ nguyên
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Đã bị ngắt: không nhận thêm sự kiện, lượt xả kế tiếp complete emitter
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Chỉ đọc / ghi trong lượt xả (mỗi lúc 1 lượt)
+        private boolean completed;
+        // System.nanoTime() lúc bắt đầu send đang chạy, 0 nếu không gửi
+        private volatile long sendStartedAt;
+
+        Subscriber(Integer scheduleId, String address, SseEmitter emitter) {
+            this.scheduleId = scheduleId;
+            this.address = address;
+            this.emitter = emitter;
+        }
+
+        // Chạy trên luồng đổi ghế / hẹn giờ: không bao giờ gọi emitter (send / complete khoá emitter, có thể
+        // phải chờ 1 lần send đang treo)
+        void offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // Đầy hàng đợi: ngắt để trình duyệt tự kết nối lại và tải lại sơ đồ ghế, luồng gửi sẽ complete
+                close();
+            }
+            scheduleDrain();
+        }
+
+        // Gọi từ luồng heartbeat: send treo quá lâu thì ngắt, luồng đang gửi tự complete khi send trả về / lỗi
+        void closeIfStuck() {
+            long startedAt = sendStartedAt;
+            if (startedAt != 0 && System.nanoTime() - startedAt > TimeUnit.SECONDS.toNanos(sendTimeoutSeconds)) {
+                close();
+            }
+        }
+
+        private void close() {
+            closed.set(true);
+            unsubscribe(this);
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(event.get());
+                    sendStartedAt = 0;
+                }
+                if (closed.get() && !completed) {
+                    completed = true;
+                    queue.clear();
+                    emitter.complete();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Trình duyệt đã đóng kết nối / emitter đã xong: ngắt người nghe này, luồng gửi vẫn sống
+                completed = true;
+                close();
+            } finally {
+                sendStartedAt = 0;
+                draining.set(false);
+            }
+            // Có sự kiện mới / vừa bị ngắt đúng lúc vừa xả xong thì xả tiếp
+            if (closed.get() ? !completed : !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.cinema_back_end.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Cây khoảng [start, end) cân bằng kiểu AVL, sắp theo start, mỗi nút nhớ end lớn nhất của cây con.
+// Kiểm tra 1 khoảng có giao khoảng nào không chỉ đi 1 đường từ gốc xuống lá: O(log n), kể cả khi
+// các khoảng đã có chồng lên nhau. Không thread-safe.
+public class IntervalTree {
+    private Node root;
+    private int size;
+
+    public void insert(long start, long end, int id) {
+        root = insert(root, new Node(start, end, id));
+        size++;
+    }
+
+    // Xoá khoảng có đúng start và id, trả false nếu không có
+    public boolean remove(long start, int id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    public boolean overlaps(long start, long end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start < end && start < node.end) {
+                return true;
+            }
+            // Cây con trái có khoảng kết thúc sau start mà không giao thì khoảng đó bắt đầu từ end trở đi,
+            // mọi khoảng bên phải còn bắt đầu muộn hơn nên chỉ cần tìm bên trái
+            node = node.left != null && node.left.maxEnd > start ? node.left : node.right;
+        }
+        return false;
+    }
+
+    // id của mọi khoảng giao [start, end), theo start tăng dần
+    public List<Integer> overlapping(long start, long end) {
+        List<Integer> ids = new ArrayList<>();
+        collect(root, start, end, ids);
+        return ids;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static void collect(Node node, long start, long end, List<Integer> ids) {
+        // Cả cây con kết thúc trước start thì không có gì giao
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collect(node.left, start, end, ids);
+        if (node.start < end) {
+            if (start < node.end) {
+                ids.add(node.id);
+            }
+            collect(node.right, start, end, ids);
+        }
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int compared = compare(start, id, node);
+        if (compared < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (compared > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Thay bằng nút nhỏ nhất của cây con phải
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    // Thứ tự theo start rồi tới id
+    private static int compare(long start, int id, Node node) {
+        if (start != node.start) {
+            return start < node.start ? -1 : 1;
+        }
+        return Integer.compare(id, node.id);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.maxEnd = Math.max(node.end, Math.max(maxEnd(node.left), maxEnd(node.right)));
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static long maxEnd(Node node) {
+        return node == null ? Long.MIN_VALUE : node.maxEnd;
+    }
+
+    private static class Node {
+        private final long start;
+        private final long end;
+        private final int id;
+        private long maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(long start, long end, int id) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.cinema_back_end.utils;
+
+import java.text.Normalizer;
+
+// Bỏ dấu tiếng Việt để tìm kiếm không phân biệt dấu: "Người Nhện" -> "nguoi nhen".
+// Chữ thường, ký tự không phải chữ / số coi như dấu cách, nhiều dấu cách gộp thành 1.
+public final class VietnameseFolding {
+    private VietnameseFolding() {
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        // Tách chữ và dấu (NFD) rồi bỏ các dấu; riêng đ / Đ không tách được nên đổi tay
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && folded.length() > 0) {
+                    folded.append(' ');
+                }
+                pendingSpace = false;
+                folded.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return folded.toString();
+    }
+}
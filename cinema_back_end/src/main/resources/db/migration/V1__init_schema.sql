@@ -0,0 +1,120 @@
+-- Schema ban đầu, giống schema ddl-auto=update đã tạo cho các entity (tên cột theo naming strategy mặc định
+-- của Spring: imgURL -> imgurl, qrImageURL -> qr_imageurl).
+-- FlywaySchemaValidationTests chạy lại từ đầu trên db riêng rồi validate với entity.
+-- IF NOT EXISTS để db cũ (baseline version 0) chạy qua mà không đổi gì, cột / ràng buộc db cũ còn thiếu do V3 bổ sung.
+
+CREATE TABLE IF NOT EXISTS branch (
+    id        INTEGER NOT NULL AUTO_INCREMENT,
+    imgurl    VARCHAR(2000),
+    name      VARCHAR(255),
+    dia_chi   VARCHAR(255),
+    phone_no  VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS movie (
+    id                 INTEGER NOT NULL AUTO_INCREMENT,
+    name               VARCHAR(255),
+    small_imageurl     VARCHAR(1000),
+    short_description  VARCHAR(500),
+    long_description   VARCHAR(1000),
+    large_imageurl     VARCHAR(1000),
+    director           VARCHAR(255),
+    actors             VARCHAR(255),
+    categories         VARCHAR(255),
+    release_date       DATE,
+    duration           INTEGER NOT NULL,
+    trailerurl         VARCHAR(1000),
+    language           VARCHAR(255),
+    rated              VARCHAR(255),
+    is_showing         INTEGER NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS room (
+    id          INTEGER NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255),
+    capacity    INTEGER NOT NULL,
+    total_area  DOUBLE PRECISION NOT NULL,
+    imgurl      VARCHAR(1000),
+    branch_id   INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_room_branch FOREIGN KEY (branch_id) REFERENCES branch (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS seat (
+    id       INTEGER NOT NULL AUTO_INCREMENT,
+    name     VARCHAR(255),
+    room_id  INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_seat_room FOREIGN KEY (room_id) REFERENCES room (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS schedule (
+    id               INTEGER NOT NULL AUTO_INCREMENT,
+    start_date       DATE,
+    start_time       TIME,
+    price            DOUBLE PRECISION NOT NULL,
+    remaining_seats  INTEGER,
+    movie_id         INTEGER NOT NULL,
+    branch_id        INTEGER NOT NULL,
+    room_id          INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_schedule_movie FOREIGN KEY (movie_id) REFERENCES movie (id) ON DELETE CASCADE,
+    CONSTRAINT fk_schedule_branch FOREIGN KEY (branch_id) REFERENCES branch (id) ON DELETE CASCADE,
+    CONSTRAINT fk_schedule_room FOREIGN KEY (room_id) REFERENCES room (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS roles (
+    id    INTEGER NOT NULL AUTO_INCREMENT,
+    name  VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS userr (
+    id         INTEGER NOT NULL AUTO_INCREMENT,
+    username   VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    full_name  VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_userr_username UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS users_roles (
+    user_id  INTEGER NOT NULL,
+    role_id  INTEGER NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_users_roles_user FOREIGN KEY (user_id) REFERENCES userr (id),
+    CONSTRAINT fk_users_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+) ENGINE = InnoDB;
+
+-- Bill và Ticket lấy id theo block 50 từ bảng giả lập sequence, IdSequenceInitializer thêm / căn giá trị lúc khởi động
+CREATE TABLE IF NOT EXISTS bill_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS ticket_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS bill (
+    id            INTEGER NOT NULL,
+    created_time  DATETIME(6),
+    user_id       INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_bill_user FOREIGN KEY (user_id) REFERENCES userr (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS ticket (
+    id            INTEGER NOT NULL,
+    qr_imageurl   VARCHAR(255),
+    seat_id       INTEGER NOT NULL,
+    schedule_id   INTEGER NOT NULL,
+    bill_id       INTEGER,
+    PRIMARY KEY (id),
+    -- 1 ghế trong 1 lịch chiếu chỉ được bán 1 lần (Ticket.UK_SCHEDULE_SEAT)
+    CONSTRAINT uk_ticket_schedule_seat UNIQUE (schedule_id, seat_id),
+    CONSTRAINT fk_ticket_seat FOREIGN KEY (seat_id) REFERENCES seat (id) ON DELETE CASCADE,
+    CONSTRAINT fk_ticket_schedule FOREIGN KEY (schedule_id) REFERENCES schedule (id) ON DELETE CASCADE,
+    CONSTRAINT fk_ticket_bill FOREIGN KEY (bill_id) REFERENCES bill (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
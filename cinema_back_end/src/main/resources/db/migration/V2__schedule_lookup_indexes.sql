@@ -0,0 +1,11 @@
+-- Các câu tìm lịch chiếu / phòng / chi nhánh đều lọc theo phim, chi nhánh, ngày, giờ (và phòng) theo đúng thứ tự này.
+-- Index đủ cột nên chọn giờ chiếu, phòng, chi nhánh chỉ đọc index, không đọc dòng của bảng.
+-- MySQL tự bỏ index ngầm của khoá ngoại movie_id vì index mới đã bắt đầu bằng movie_id.
+CREATE INDEX idx_schedule_movie_branch_date_time_room
+    ON schedule (movie_id, branch_id, start_date, start_time, room_id);
+
+-- Sơ đồ ghế đọc ghế theo phòng. Đặt tên rõ ràng thay cho index ngầm của khoá ngoại.
+CREATE INDEX idx_seat_room ON seat (room_id);
+
+-- ticket(schedule_id, seat_id) đã là unique key uk_ticket_schedule_seat (V1). Đọc id ghế đã bán / đếm vé
+-- của 1 lịch chiếu chỉ cần quét index này nên không tạo thêm.
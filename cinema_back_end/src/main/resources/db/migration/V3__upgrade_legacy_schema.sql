@@ -0,0 +1,29 @@
+-- Db cũ do ddl-auto=update tạo (baseline version 0) chạy qua V1 mà không đổi gì vì bảng đã có sẵn, nên thiếu
+-- các cột / ràng buộc thêm sau: schedule.remaining_seats và unique key chặn bán 1 ghế 2 lần.
+-- Mỗi bước chỉ chạy khi còn thiếu => db cài mới từ V1 đi qua không đổi gì. MySQL 8 không có ADD COLUMN IF NOT EXISTS
+-- nên dựng câu lệnh theo information_schema rồi PREPARE.
+
+-- Null = chưa tính, RemainingSeatsInitializer tính bù lúc app khởi động
+SET @add_remaining_seats = (
+    SELECT IF(COUNT(*) = 0, 'ALTER TABLE schedule ADD COLUMN remaining_seats INTEGER', 'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'schedule' AND column_name = 'remaining_seats');
+PREPARE add_remaining_seats FROM @add_remaining_seats;
+EXECUTE add_remaining_seats;
+DEALLOCATE PREPARE add_remaining_seats;
+
+-- Trước khi có unique key, 2 lượt đặt chen nhau có thể đã bán trùng ghế: giữ vé đầu tiên (id nhỏ nhất), xoá vé sau
+DELETE duplicate
+FROM ticket duplicate
+         JOIN ticket kept ON kept.schedule_id = duplicate.schedule_id
+    AND kept.seat_id = duplicate.seat_id
+    AND kept.id < duplicate.id;
+
+SET @add_uk_ticket_schedule_seat = (
+    SELECT IF(COUNT(*) = 0,
+              'ALTER TABLE ticket ADD CONSTRAINT uk_ticket_schedule_seat UNIQUE (schedule_id, seat_id)', 'DO 0')
+    FROM information_schema.table_constraints
+    WHERE table_schema = DATABASE() AND table_name = 'ticket' AND constraint_name = 'uk_ticket_schedule_seat');
+PREPARE add_uk_ticket_schedule_seat FROM @add_uk_ticket_schedule_seat;
+EXECUTE add_uk_ticket_schedule_seat;
+DEALLOCATE PREPARE add_uk_ticket_schedule_seat;
@@ -0,0 +1,54 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.services.BookedSeatsJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Bản sao đọc db ở version v chỉ nhận các lượt bán sau v, đúng 1 lần và theo thứ tự
+class BookedSeatsJournalTests {
+    private BookedSeatsJournal journal;
+
+    @BeforeEach
+    void createJournal() {
+        journal = new BookedSeatsJournal();
+        ReflectionTestUtils.setField(journal, "maxEntries", 4);
+        journal.createEntries();
+    }
+
+    @Test
+    void replaysOnlyBookingsAfterVersion() {
+        journal.record(10, 2);
+        long loadedAt = journal.currentVersion();
+        journal.record(11, 1);
+        journal.record(10, 3);
+
+        List<String> replayed = new ArrayList<>();
+        long version = journal.replay(loadedAt, (scheduleId, count) -> replayed.add(scheduleId + "x" + count));
+
+        assertEquals(List.of("11x1", "10x3"), replayed);
+        assertEquals(3, version);
+        // Lần sau tính từ version đã áp: không áp lại
+        assertEquals(3, journal.replay(version, (scheduleId, count) -> replayed.add("again")));
+        assertEquals(2, replayed.size());
+    }
+
+    @Test
+    void refusesWhenOlderBookingsWereOverwritten() {
+        long loadedAt = journal.currentVersion();
+        for (int i = 0; i < 5; i++) {
+            journal.record(10, 1);
+        }
+
+        assertEquals(-1, journal.replay(loadedAt, (scheduleId, count) -> { }));
+        // 4 lượt cuối vẫn còn
+        List<Integer> replayed = new ArrayList<>();
+        assertEquals(5, journal.replay(1, (scheduleId, count) -> replayed.add(scheduleId)));
+        assertEquals(4, replayed.size());
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.dtos.BookingRequestDTO;
+import com.example.cinema_back_end.entities.Schedule;
+import com.example.cinema_back_end.entities.User;
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.repositories.ITicketRepository;
+import com.example.cinema_back_end.security.repo.IUserRepository;
+import com.example.cinema_back_end.services.IBillService;
+import com.example.cinema_back_end.services.SeatLayout;
+import com.example.cinema_back_end.services.SeatLayoutCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Số câu SQL của 1 lần đặt vé không được tăng theo số ghế: 1 insert bill + 1 batch insert vé
+// + 1 update trừ số ghế còn trống của lịch (cộng tối đa 2 câu khi phải lấy block id mới từ bảng sequence)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingStatementCountTests {
+    private static final int MAX_STATEMENTS_PER_BOOKING = 5;
+
+    @Autowired
+    private IBillService billService;
+    @Autowired
+    private IScheduleRepository scheduleRepository;
+    @Autowired
+    private SeatLayoutCache seatLayoutCache;
+    @Autowired
+    private ITicketRepository ticketRepository;
+    @Autowired
+    private IUserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Integer scheduleId;
+    private Integer userId;
+    private List<Integer> freeSeatIds;
+
+    @BeforeEach
+    void findScheduleWithFreeSeats() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<User> users = userRepository.findAll();
+        assumeTrue(!users.isEmpty(), "Cần ít nhất 1 người dùng trong db");
+        userId = users.get(0).getId();
+        for (Schedule schedule : scheduleRepository.findAll()) {
+            List<Integer> bookedSeatIds = ticketRepository.getSeatIdsBySchedule_Id(schedule.getId());
+            SeatLayout layout = seatLayoutCache.getLayoutBySchedule(schedule.getId());
+            List<Integer> seatIds = IntStream.range(0, layout.size()).map(layout::seatIdAt).boxed()
+                    .filter(seatId -> !bookedSeatIds.contains(seatId))
+                    .collect(Collectors.toList());
+            if (seatIds.size() >= 8) {
+                scheduleId = schedule.getId();
+                freeSeatIds = seatIds;
+                return;
+            }
+        }
+        assumeTrue(false, "Cần 1 lịch chiếu còn ít nhất 8 ghế trống");
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithSeatCount() {
+        // Lần đầu để nạp kho ghế và lấy block id, không tính
+        countStatements(freeSeatIds.subList(0, 1));
+
+        long oneSeat = countStatements(freeSeatIds.subList(1, 2));
+        long sixSeats = countStatements(freeSeatIds.subList(2, 8));
+
+        assertTrue(oneSeat <= MAX_STATEMENTS_PER_BOOKING, "1 ghế tốn " + oneSeat + " câu SQL");
+        assertTrue(sixSeats <= MAX_STATEMENTS_PER_BOOKING, "6 ghế tốn " + sixSeats + " câu SQL");
+    }
+
+    // Đặt vé trong 1 transaction rồi roll back để không làm bẩn db
+    private long countStatements(List<Integer> seatIds) {
+        BookingRequestDTO request = new BookingRequestDTO();
+        request.setUserId(userId);
+        request.setScheduleId(scheduleId);
+        request.setListSeatIds(seatIds);
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            statistics.clear();
+            billService.createNewBill(request);
+            entityManager.flush();
+            long count = statistics.getPrepareStatementCount();
+            status.setRollbackOnly();
+            return count;
+        });
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.dtos.BookingRequestDTO;
+import com.example.cinema_back_end.entities.Schedule;
+import com.example.cinema_back_end.entities.Ticket;
+import com.example.cinema_back_end.entities.User;
+import com.example.cinema_back_end.repositories.IBillRepository;
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.repositories.ISeatRepository;
+import com.example.cinema_back_end.repositories.ITicketRepository;
+import com.example.cinema_back_end.security.repo.IUserRepository;
+import com.example.cinema_back_end.services.BookingSequencer;
+import com.example.cinema_back_end.services.IBillService;
+import com.example.cinema_back_end.services.SeatInventory;
+import com.example.cinema_back_end.services.SeatLayout;
+import com.example.cinema_back_end.services.SeatLayoutCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Bắn nhiều lượt đặt vé chồng ghế lên cùng 1 lịch chiếu, không ghế nào được bán 2 lần
+@SpringBootTest
+class ConcurrentBookingTests {
+    private static final int THREADS = 16;
+    private static final int BOOKINGS = 200;
+
+    @Autowired
+    private IBillService billService;
+    @Autowired
+    private BookingSequencer bookingSequencer;
+    @Autowired
+    private IScheduleRepository scheduleRepository;
+    @Autowired
+    private ISeatRepository seatRepository;
+    @Autowired
+    private SeatLayoutCache seatLayoutCache;
+    @Autowired
+    private SeatInventory seatInventory;
+    @Autowired
+    private ITicketRepository ticketRepository;
+    @Autowired
+    private IBillRepository billRepository;
+    @Autowired
+    private IUserRepository userRepository;
+
+    private Schedule schedule;
+    private Integer userId;
+    private List<Integer> seatIds;
+
+    // Tạo 1 lịch chiếu mới tinh (copy phòng, phim, chi nhánh của lịch có sẵn) để chắc chắn chưa có vé
+    @BeforeEach
+    void createEmptySchedule() {
+        List<User> users = userRepository.findAll();
+        List<Schedule> schedules = scheduleRepository.findAll();
+        assumeTrue(!users.isEmpty() && !schedules.isEmpty(), "Cần có sẵn người dùng và lịch chiếu trong db");
+        userId = users.get(0).getId();
+
+        Schedule template = schedules.get(0);
+        Schedule newSchedule = new Schedule();
+        newSchedule.setMovie(template.getMovie());
+        newSchedule.setBranch(template.getBranch());
+        newSchedule.setRoom(template.getRoom());
+        newSchedule.setPrice(template.getPrice());
+        newSchedule.setStartDate(LocalDate.parse("2099-01-01"));
+        newSchedule.setStartTime(LocalTime.parse("23:59"));
+        schedule = scheduleRepository.save(newSchedule);
+
+        SeatLayout layout = seatLayoutCache.getLayoutBySchedule(schedule.getId());
+        seatIds = IntStream.range(0, layout.size()).map(layout::seatIdAt).boxed().collect(Collectors.toList());
+        assumeTrue(seatIds.size() >= 6, "Phòng chiếu cần ít nhất 6 ghế");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        List<Integer> billIds = ticketRepository.findTicketsBySchedule_Id(schedule.getId()).stream()
+                .filter(ticket -> ticket.getBill() != null)
+                .map(ticket -> ticket.getBill().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        billRepository.deleteAllById(billIds);
+        scheduleRepository.deleteById(schedule.getId());
+    }
+
+    @Test
+    void overlappingBookingsNeverSellASeatTwice() throws Exception {
+        AtomicInteger soldSeats = new AtomicInteger();
+        List<Runnable> bookings = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < BOOKINGS; i++) {
+            // Mỗi lượt đặt 2 ghế liền nhau trong 6 ghế đầu => các lượt đặt đụng nhau liên tục
+            int first = random.nextInt(5);
+            List<Integer> requested = Arrays.asList(seatIds.get(first), seatIds.get(first + 1));
+            bookings.add(() -> {
+                BookingRequestDTO request = new BookingRequestDTO();
+                request.setUserId(userId);
+                request.setScheduleId(schedule.getId());
+                request.setListSeatIds(requested);
+                try {
+                    billService.createNewBill(request);
+                    soldSeats.addAndGet(requested.size());
+                } catch (RuntimeException e) {
+                    // Thua lượt, ghế đã có người khác đặt
+                }
+            });
+        }
+        runConcurrently(bookings);
+
+        List<Integer> soldSeatIds = ticketRepository.getSeatIdsBySchedule_Id(schedule.getId());
+        assertEquals(new HashSet<>(soldSeatIds).size(), soldSeatIds.size(), "Có ghế bị bán 2 lần");
+        assertEquals(soldSeats.get(), soldSeatIds.size());
+    }
+
+    // Cùng bài toán nhưng đi qua luồng ghi tuần tự của lịch chiếu
+    @Test
+    void sequencedBookingsNeverSellASeatTwice() throws Exception {
+        AtomicInteger soldSeats = new AtomicInteger();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        List<Runnable> bookings = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < BOOKINGS; i++) {
+            int first = random.nextInt(5);
+            List<Integer> requested = Arrays.asList(seatIds.get(first), seatIds.get(first + 1));
+            bookings.add(() -> {
+                BookingRequestDTO request = new BookingRequestDTO();
+                request.setUserId(userId);
+                request.setScheduleId(schedule.getId());
+                request.setListSeatIds(requested);
+                CompletableFuture<Void> result = bookingSequencer.submit(request)
+                        .thenRun(() -> soldSeats.addAndGet(requested.size()));
+                synchronized (results) {
+                    results.add(result);
+                }
+            });
+        }
+        runConcurrently(bookings);
+        for (CompletableFuture<Void> result : results) {
+            try {
+                result.get(1, TimeUnit.MINUTES);
+            } catch (ExecutionException e) {
+                // Thua lượt, ghế đã có người khác đặt
+            }
+        }
+
+        List<Integer> soldSeatIds = ticketRepository.getSeatIdsBySchedule_Id(schedule.getId());
+        assertEquals(new HashSet<>(soldSeatIds).size(), soldSeatIds.size(), "Có ghế bị bán 2 lần");
+        assertEquals(soldSeats.get(), soldSeatIds.size());
+    }
+
+    // Bỏ qua kho ghế trong bộ nhớ, insert thẳng xuống db: unique constraint vẫn phải chặn
+    @Test
+    void uniqueConstraintRejectsDuplicateInsertsWithoutInventory() throws Exception {
+        AtomicInteger inserted = new AtomicInteger();
+        List<Runnable> inserts = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            inserts.add(() -> {
+                Ticket ticket = new Ticket();
+                ticket.setSchedule(schedule);
+                ticket.setSeat(seatRepository.getById(seatIds.get(0)));
+                try {
+                    ticketRepository.save(ticket);
+                    inserted.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // Vi phạm uk_ticket_schedule_seat
+                }
+            });
+        }
+        runConcurrently(inserts);
+
+        assertEquals(1, inserted.get());
+        assertEquals(1, ticketRepository.getSeatIdsBySchedule_Id(schedule.getId()).size());
+    }
+
+    // Lịch đã bắt đầu vẫn nằm trong kho khi còn ghế đang giữ, giữ xong mới bị bỏ và dựng lại từ db ở lần dùng sau
+    @Test
+    void evictionKeepsStartedScheduleUntilHeldSeatsAreReleased() {
+        List<Integer> held = seatIds.subList(0, 2);
+        assertTrue(seatInventory.claim(schedule.getId(), held));
+        schedule.setStartDate(LocalDate.parse("2000-01-01"));
+        schedule = scheduleRepository.save(schedule);
+
+        seatInventory.evictStartedSchedules();
+        assertFalse(seatInventory.claim(schedule.getId(), held.subList(0, 1)), "Ghế đang giữ bị mất khỏi kho");
+
+        seatInventory.release(schedule.getId(), held);
+        seatInventory.evictStartedSchedules();
+        // Vé ghi thẳng xuống db sau khi bị bỏ: kho dựng lại phải thấy
+        Ticket ticket = new Ticket();
+        ticket.setSchedule(schedule);
+        ticket.setSeat(seatRepository.getById(seatIds.get(2)));
+        ticketRepository.save(ticket);
+        assertFalse(seatInventory.claim(schedule.getId(), seatIds.subList(2, 3)));
+        assertTrue(seatInventory.claim(schedule.getId(), held));
+        seatInventory.release(schedule.getId(), held);
+    }
+
+    private void runConcurrently(List<Runnable> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
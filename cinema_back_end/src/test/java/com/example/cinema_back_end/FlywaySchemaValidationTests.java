@@ -0,0 +1,115 @@
+package com.example.cinema_back_end;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Flyway dựng schema từ đầu trên 1 db riêng (xoá sạch mỗi lần chạy) rồi Hibernate validate từng entity với schema đó:
+// migration lệch tên / kiểu cột so với entity thì context không khởi động được.
+// Đường nâng cấp: db do ddl-auto=update tạo trước khi có Flyway (chưa có remaining_seats / unique key vé) phải được
+// V3 bổ sung cho đủ rồi cũng validate được
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:mysql://localhost:3306/cinema_schema_check?createDatabaseIfNotExist=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.clean-disabled=false"})
+class FlywaySchemaValidationTests {
+    private static final String UPGRADE_URL = "jdbc:mysql://localhost:3306/cinema_upgrade_check?createDatabaseIfNotExist=true";
+
+    @Autowired
+    private Flyway flyway;
+    @Value("${spring.datasource.username}")
+    private String username;
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Test
+    void migratedSchemaMatchesEntities() {
+        assertNotNull(flyway.info().current());
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void upgradesSchemaCreatedByDdlAutoUpdate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(UPGRADE_URL, username, password);
+        Flyway upgrade = Flyway.configure()
+                .dataSource(dataSource)
+                .cleanDisabled(false)
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Dựng schema mới rồi gỡ những gì db cũ chưa có, kể cả lịch sử Flyway. Khoá ngoại cần index riêng
+        // trước khi bỏ index đang dùng chung với nó (ddl-auto=update cũng tạo các index này)
+        upgrade.clean();
+        upgrade.migrate();
+        jdbcTemplate.execute("DROP TABLE flyway_schema_history");
+        jdbcTemplate.execute("CREATE INDEX fk_schedule_movie_legacy ON schedule (movie_id)");
+        jdbcTemplate.execute("DROP INDEX idx_schedule_movie_branch_date_time_room ON schedule");
+        jdbcTemplate.execute("CREATE INDEX fk_seat_room_legacy ON seat (room_id)");
+        jdbcTemplate.execute("DROP INDEX idx_seat_room ON seat");
+        jdbcTemplate.execute("CREATE INDEX fk_ticket_schedule_legacy ON ticket (schedule_id)");
+        jdbcTemplate.execute("ALTER TABLE ticket DROP INDEX uk_ticket_schedule_seat");
+        jdbcTemplate.execute("ALTER TABLE schedule DROP COLUMN remaining_seats");
+
+        // 1 ghế đã bị bán 2 lần khi chưa có unique key
+        jdbcTemplate.update("INSERT INTO branch (id, name) VALUES (1, 'Chi nhánh')");
+        jdbcTemplate.update("INSERT INTO movie (id, name, duration, is_showing) VALUES (1, 'Phim', 90, 1)");
+        jdbcTemplate.update("INSERT INTO room (id, name, capacity, total_area, branch_id) VALUES (1, 'Phòng', 1, 10, 1)");
+        jdbcTemplate.update("INSERT INTO seat (id, name, room_id) VALUES (1, 'A1', 1)");
+        jdbcTemplate.update("INSERT INTO schedule (id, start_date, start_time, price, movie_id, branch_id, room_id) " +
+                "VALUES (1, '2021-01-05', '09:00', 70000, 1, 1, 1)");
+        jdbcTemplate.update("INSERT INTO userr (id, username, password, full_name) VALUES (1, 'legacy', 'x', 'Legacy')");
+        jdbcTemplate.update("INSERT INTO bill (id, user_id) VALUES (1, 1)");
+        jdbcTemplate.update("INSERT INTO ticket (id, seat_id, schedule_id, bill_id) VALUES (1, 1, 1, 1), (2, 1, 1, 1)");
+
+        upgrade.migrate();
+
+        assertEquals(0, upgrade.info().pending().length);
+        // Giữ vé đầu tiên, bán trùng lần nữa thì db chặn
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT MIN(id) FROM ticket", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ticket", Integer.class));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO ticket (id, seat_id, schedule_id, bill_id) VALUES (3, 1, 1, 1)"));
+
+        // Hibernate validate trên schema đã nâng cấp, RemainingSeatsInitializer tính bù cột mới
+        try (ConfigurableApplicationContext upgraded = new SpringApplicationBuilder(CinemaBackEndApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + UPGRADE_URL,
+                        "spring.jpa.hibernate.ddl-auto=validate",
+                        "spring.flyway.enabled=false",
+                        "cinema.demo-data.enabled=false",
+                        "cinema.schedule-index.refresh-minutes=0")
+                .run()) {
+            assertNotNull(upgraded.getBean(JdbcTemplate.class)
+                    .queryForObject("SELECT remaining_seats FROM schedule WHERE id = 1", Integer.class));
+        }
+    }
+
+    @TestConfiguration
+    static class CleanMigrate {
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return flyway -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.services.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Kết quả cuối cùng (kể cả câu từ chối) được trả lại cho lần gửi lại, lỗi tạm thời thì lần gửi lại được chạy lại
+class IdempotencyServiceTests {
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void createService() {
+        idempotencyService = new IdempotencyService();
+        ReflectionTestUtils.setField(idempotencyService, "ttlMinutes", 10L);
+        ReflectionTestUtils.setField(idempotencyService, "maxKeys", 100L);
+        idempotencyService.createCache();
+    }
+
+    @Test
+    void replaysFinalOutcomeWithoutRunningAgain() {
+        String first = idempotencyService.execute("1:key", "body", () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture("Ghế đã có người");
+        }).join();
+        String retry = idempotencyService.execute("1:key", "body", () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture("Đặt vé thành công");
+        }).join();
+
+        assertEquals("Ghế đã có người", first);
+        assertEquals("Ghế đã có người", retry);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void runsAgainAfterTransientFailure() {
+        CompletableFuture<String> failed = idempotencyService.execute("1:key", "body", () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("db mất kết nối"));
+        });
+        String retry = idempotencyService.execute("1:key", "body", () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture("Đặt vé thành công");
+        }).join();
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals("Đặt vé thành công", retry);
+        assertEquals(2, runs.get());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.utils.IntervalTree;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalTreeTests {
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(100, 200, 1);
+        tree.insert(300, 400, 2);
+
+        // [start, end): kết thúc đúng lúc suất sau bắt đầu là không trùng
+        assertFalse(tree.overlaps(200, 300));
+        assertTrue(tree.overlaps(199, 201));
+        assertTrue(tree.overlaps(350, 360));
+        assertTrue(tree.overlaps(0, 1000));
+        assertEquals(List.of(1, 2), tree.overlapping(150, 350));
+        assertTrue(tree.overlapping(400, 500).isEmpty());
+    }
+
+    @Test
+    void findsLongIntervalHiddenBehindLaterStarts() {
+        IntervalTree tree = new IntervalTree();
+        // Khoảng dài bắt đầu sớm nhất, các khoảng ngắn sau đó đẩy nó xuống cây con trái
+        tree.insert(0, 1000, 1);
+        for (int i = 1; i <= 50; i++) {
+            tree.insert(i * 10, i * 10 + 5, i + 1);
+        }
+
+        assertTrue(tree.overlaps(996, 999));
+        assertEquals(List.of(1), tree.overlapping(996, 999));
+        assertEquals(51, tree.size());
+    }
+
+    @Test
+    void matchesBruteForceOnRandomInsertsAndRemoves() {
+        Random random = new Random(25);
+        IntervalTree tree = new IntervalTree();
+        List<long[]> intervals = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            long start = random.nextInt(100_000);
+            long end = start + 1 + random.nextInt(300);
+            tree.insert(start, end, id);
+            intervals.add(new long[]{start, end});
+        }
+
+        // Xoá 1 nửa, các khoảng đã xoá không còn được tìm thấy
+        for (int id = 0; id < intervals.size(); id += 2) {
+            assertTrue(tree.remove(intervals.get(id)[0], id));
+            intervals.set(id, new long[]{0, 0});
+        }
+        assertFalse(tree.remove(intervals.get(1)[0], -1));
+        assertEquals(1000, tree.size());
+
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(100_000);
+            long end = start + 1 + random.nextInt(300);
+            List<Integer> expected = new ArrayList<>();
+            for (int id = 0; id < intervals.size(); id++) {
+                if (intervals.get(id)[0] < end && start < intervals.get(id)[1]) {
+                    expected.add(id);
+                }
+            }
+            List<Integer> actual = tree.overlapping(start, end);
+            expected.sort(null);
+            actual.sort(null);
+            assertEquals(expected, actual);
+            assertEquals(!expected.isEmpty(), tree.overlaps(start, end));
+        }
+    }
+}
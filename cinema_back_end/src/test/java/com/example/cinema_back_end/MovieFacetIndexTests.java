@@ -0,0 +1,79 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.dtos.MovieFacetsDTO;
+import com.example.cinema_back_end.dtos.MovieSummaryDTO;
+import com.example.cinema_back_end.services.MovieFacetIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class MovieFacetIndexTests {
+    private static final String ENGLISH = "Tiếng Anh - Phụ đề Tiếng Việt";
+    private static final String VIETNAMESE = "Tiếng Việt";
+
+    private MovieFacetIndex facetIndex;
+
+    @BeforeEach
+    void buildIndex() {
+        facetIndex = new MovieFacetIndex();
+        facetIndex.rebuild(List.of(
+                movie(1, "Hành Động, Phiêu Lưu", ENGLISH, "C13"),
+                movie(2, "Hài, Hoạt Hình", VIETNAMESE, "P"),
+                movie(3, "Hành Động, Hài", VIETNAMESE, "C16"),
+                movie(4, "Hoạt Hình", ENGLISH, "P")));
+    }
+
+    @Test
+    void orWithinFacetAndAcrossFacets() {
+        // (Hài OR Phiêu Lưu) AND Tiếng Việt
+        MovieFacetsDTO result = facetIndex.filter(Map.of(
+                MovieFacetIndex.CATEGORIES, List.of("hai", "Phiêu Lưu"),
+                MovieFacetIndex.LANGUAGE, List.of(VIETNAMESE)));
+        assertEquals(List.of(3, 2), ids(result));
+    }
+
+    @Test
+    void countsOfAFacetIgnoreItsOwnSelection() {
+        MovieFacetsDTO result = facetIndex.filter(Map.of(MovieFacetIndex.RATED, List.of("P")));
+        assertEquals(List.of(4, 2), ids(result));
+        // Độ tuổi đếm trên toàn bộ phim, thể loại đếm trên các phim loại P
+        assertEquals(Map.of("C13", 1, "C16", 1, "P", 2), result.getFacets().get(MovieFacetIndex.RATED));
+        assertEquals(2, result.getFacets().get(MovieFacetIndex.CATEGORIES).get("Hoạt Hình"));
+        assertEquals(0, result.getFacets().get(MovieFacetIndex.CATEGORIES).get("Hành Động"));
+    }
+
+    @Test
+    void updatesBitmapsWhenMovieChanges() {
+        facetIndex.put(movie(4, "Kinh Dị", ENGLISH, "C18"));
+        assertEquals(List.of(2), ids(facetIndex.filter(Map.of(MovieFacetIndex.CATEGORIES, List.of("Hoạt Hình")))));
+        assertEquals(List.of(4), ids(facetIndex.filter(Map.of(MovieFacetIndex.CATEGORIES, List.of("Kinh Dị")))));
+
+        facetIndex.delete(1);
+        MovieFacetsDTO result = facetIndex.filter(Map.of());
+        assertEquals(List.of(4, 3, 2), ids(result));
+        // Giá trị không còn phim nào thì không còn trong số đếm
+        assertFalse(result.getFacets().get(MovieFacetIndex.CATEGORIES).containsKey("Phiêu Lưu"));
+        assertFalse(result.getFacets().get(MovieFacetIndex.RATED).containsKey("C13"));
+    }
+
+    private static List<Integer> ids(MovieFacetsDTO result) {
+        return result.getMovies().stream().map(MovieSummaryDTO::getId).collect(Collectors.toList());
+    }
+
+    private static MovieDTO movie(int id, String categories, String language, String rated) {
+        MovieDTO movie = new MovieDTO();
+        movie.setId(id);
+        movie.setName("Phim " + id);
+        movie.setCategories(categories);
+        movie.setLanguage(language);
+        movie.setRated(rated);
+        return movie;
+    }
+}
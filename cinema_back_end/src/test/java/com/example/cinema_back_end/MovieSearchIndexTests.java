@@ -0,0 +1,89 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.dtos.MovieSuggestionDTO;
+import com.example.cinema_back_end.services.MovieSearchIndex;
+import com.example.cinema_back_end.utils.VietnameseFolding;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MovieSearchIndexTests {
+    private MovieSearchIndex searchIndex;
+
+    @BeforeEach
+    void buildIndex() {
+        searchIndex = new MovieSearchIndex();
+        searchIndex.rebuild(List.of(
+                movie(1, "Người Nhện: Không Còn Nhà", "Jon Watts", "Tom Holland, Zendaya", "Hành Động, Phiêu Lưu"),
+                movie(2, "Ma Trận: Hồi Sinh", "Lana Wachowski", "Keanu Reeves", "Hành Động, Khoa Học Viễn Tưởng"),
+                movie(3, "Đảo Nhện", "Người Dẫn Truyện", "Diễn viên B", "Kinh Dị")));
+    }
+
+    @Test
+    void foldsVietnameseDiacritics() {
+        assertEquals("nguoi nhen khong con nha", VietnameseFolding.fold("Người Nhện: Không Còn Nhà"));
+        assertEquals("dao nhen", VietnameseFolding.fold("  ĐẢO   nhện "));
+    }
+
+    @Test
+    void searchIgnoresDiacriticsAndRanksNameFirst() {
+        assertEquals(List.of(1), ids(searchIndex.search("nguoi nhen khong")));
+        // Cùng khớp ở tên thì phim mới hơn đứng trước
+        assertEquals(List.of(3, 1), ids(searchIndex.search("NHỆN")));
+        // Khớp ở tên phim xếp trước khớp ở tên đạo diễn dù phim cũ hơn
+        assertEquals(List.of(1, 3), ids(searchIndex.search("nguoi")));
+    }
+
+    @Test
+    void searchesDirectorActorsAndCategories() {
+        assertEquals(List.of(2), ids(searchIndex.search("keanu")));
+        assertEquals(List.of(2), ids(searchIndex.search("wachowski")));
+        assertEquals(List.of(2, 1), ids(searchIndex.search("hanh dong")));
+        assertTrue(searchIndex.search("XYZ123_Khong_Co_Phim_Nay").isEmpty());
+    }
+
+    @Test
+    void updatesOneMovieAtATime() {
+        searchIndex.put(movie(2, "Ma Trận 4", "Lana Wachowski", "Keanu Reeves", "Hành Động"));
+        assertTrue(searchIndex.search("hoi sinh").isEmpty());
+        assertEquals(List.of(2), ids(searchIndex.search("ma tran 4")));
+
+        searchIndex.delete(1);
+        assertEquals(List.of(3), ids(searchIndex.search("nhen")));
+        assertEquals(2, searchIndex.size());
+    }
+
+    @Test
+    void suggestsTitlesStartingWithPrefixBeforeInnerWords() {
+        assertEquals(List.of(1), suggestionIds(searchIndex.suggest("Ngư", 8)));
+        // "Đảo Nhện" và "Người Nhện" chỉ khớp ở từ thứ 2
+        assertEquals(List.of(3, 1), suggestionIds(searchIndex.suggest("nhen", 8)));
+        assertEquals(List.of(2), suggestionIds(searchIndex.suggest("ma tran h", 8)));
+        assertEquals(List.of(3), suggestionIds(searchIndex.suggest("nhen", 1)));
+        assertTrue(searchIndex.suggest(" ", 8).isEmpty());
+    }
+
+    private static List<Integer> suggestionIds(List<MovieSuggestionDTO> suggestions) {
+        return suggestions.stream().map(MovieSuggestionDTO::getId).collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(List<MovieDTO> movies) {
+        return movies.stream().map(MovieDTO::getId).collect(Collectors.toList());
+    }
+
+    private static MovieDTO movie(int id, String name, String director, String actors, String categories) {
+        MovieDTO movie = new MovieDTO();
+        movie.setId(id);
+        movie.setName(name);
+        movie.setDirector(director);
+        movie.setActors(actors);
+        movie.setCategories(categories);
+        return movie;
+    }
+}
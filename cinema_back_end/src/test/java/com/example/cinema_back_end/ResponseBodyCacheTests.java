@@ -0,0 +1,73 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.events.CatalogChangedEvent;
+import com.example.cinema_back_end.services.ResponseBodyCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Body đang nạp dở lúc dữ liệu đổi không được trả cho các request sau lần đổi
+class ResponseBodyCacheTests {
+    private ResponseBodyCache responseBodyCache;
+
+    @BeforeEach
+    void createCache() {
+        responseBodyCache = new ResponseBodyCache();
+        ReflectionTestUtils.setField(responseBodyCache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(responseBodyCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(responseBodyCache, "maxEntries", 100L);
+        ReflectionTestUtils.setField(responseBodyCache, "ttlMinutes", 10L);
+        responseBodyCache.createCache();
+    }
+
+    @Test
+    void bodyLoadedDuringChangeIsNotServedAfterIt() throws Exception {
+        // Request đầu đọc xong dữ liệu cũ thì lịch chiếu đổi, body cũ được lưu sau lần dọn
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> respond(CatalogChangedEvent.Section.SCHEDULES, () -> {
+            loaded.countDown();
+            try {
+                changed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of("old");
+        }));
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        responseBodyCache.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Section.SCHEDULES));
+        changed.countDown();
+        assertEquals("[\"old\"]", first.get(5, TimeUnit.SECONDS));
+
+        assertEquals("[\"new\"]", respond(CatalogChangedEvent.Section.SCHEDULES, () -> List.of("new")));
+        assertEquals("[\"new\"]", respond(CatalogChangedEvent.Section.SCHEDULES, () -> List.of("again")));
+    }
+
+    @Test
+    void changeClearsOnlyItsSection() {
+        respond(CatalogChangedEvent.Section.MOVIES, () -> List.of("movies"));
+        respond(CatalogChangedEvent.Section.SCHEDULES, () -> List.of("schedules"));
+
+        responseBodyCache.onCatalogChanged(new CatalogChangedEvent(CatalogChangedEvent.Section.SCHEDULES));
+
+        assertEquals("[\"movies\"]", respond(CatalogChangedEvent.Section.MOVIES, () -> List.of("reloaded")));
+        assertEquals("[\"reloaded\"]", respond(CatalogChangedEvent.Section.SCHEDULES, () -> List.of("reloaded")));
+    }
+
+    private String respond(CatalogChangedEvent.Section section, Supplier<?> loader) {
+        byte[] body = responseBodyCache.respond(section, "key", null, loader).getBody();
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
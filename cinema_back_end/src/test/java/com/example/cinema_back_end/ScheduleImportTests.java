@@ -0,0 +1,205 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.dtos.ScheduleImportReportDTO;
+import com.example.cinema_back_end.entities.Schedule;
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.services.IScheduleImportService;
+import com.example.cinema_back_end.services.RoomConflictDetector;
+import com.example.cinema_back_end.services.ScheduleIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Nhập lịch vào 1 ngày xa (không đụng lịch thật) rồi xoá đi sau mỗi test
+@SpringBootTest(properties = {"cinema.schedule-import.batch-size=2", "cinema.schedule.cleaning-minutes=15"})
+class ScheduleImportTests {
+    private static final String DAY = "2099-01-01";
+    private static final String NEXT_DAY = "2099-01-02";
+
+    @Autowired
+    private IScheduleImportService scheduleImportService;
+    @Autowired
+    private IScheduleRepository scheduleRepository;
+    @Autowired
+    private ScheduleIndex scheduleIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private RoomConflictDetector roomConflictDetector;
+
+    private Schedule existing;
+
+    @BeforeEach
+    void findRoom() {
+        List<Schedule> schedules = scheduleRepository.findAll();
+        assumeTrue(!schedules.isEmpty(), "Cần ít nhất 1 lịch chiếu trong db");
+        existing = schedules.get(0);
+        assumeTrue(existing.getMovie().getDuration() > 0, "Phim cần có thời lượng");
+    }
+
+    @AfterEach
+    void deleteImportedSchedules() {
+        jdbcTemplate.update("DELETE FROM schedule WHERE start_date IN (?, ?)", DAY, NEXT_DAY);
+    }
+
+    @Test
+    void importsValidRowsAndRejectsRoomConflicts() throws IOException {
+        int movieId = existing.getMovie().getId();
+        String branch = existing.getBranch().getName();
+        int roomId = existing.getRoom().getId();
+        String csv = "movie,branch,room,startDate,startTime,price\n"
+                + movieId + ",\"" + branch + "\"," + roomId + "," + DAY + ",09:00,70000\n"
+                // Bắt đầu trước khi suất 09:00 kết thúc
+                + movieId + ",\"" + branch + "\"," + roomId + "," + DAY + ",09:01,70000\n"
+                + movieId + ",\"" + branch + "\"," + roomId + "," + DAY + ",23:00,70000\n"
+                + "999999,\"" + branch + "\"," + roomId + "," + DAY + ",12:00,70000\n"
+                + movieId + ",\"" + branch + "\"," + roomId + ",2099-13-01,12:00,70000\n";
+
+        ScheduleImportReportDTO report = importCsv(csv);
+
+        assertEquals(5, report.getTotalRows());
+        assertEquals(2, report.getImportedRows());
+        assertEquals(3, report.getRejectedRows());
+        assertEquals(3, report.getRejections().size());
+        assertTrue(report.getRejections().get(0).startsWith("Dòng 3:"), report.getRejections().get(0));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM schedule WHERE start_date = ? AND room_id = ?", Integer.class, DAY, roomId));
+    }
+
+    @Test
+    void keepsCleaningTimeBetweenSchedulesOfRoom() throws IOException {
+        int duration = existing.getMovie().getDuration();
+        assumeTrue(duration < 12 * 60, "Phim quá dài cho 1 ngày");
+        LocalTime firstEnd = LocalTime.parse("09:00").plusMinutes(duration);
+        String prefix = existing.getMovie().getId() + "," + existing.getBranch().getId() + ","
+                + existing.getRoom().getId() + "," + DAY + ",";
+        String csv = "movie,branch,room,startDate,startTime,price\n"
+                + prefix + "09:00,70000\n"
+                // Bắt đầu ngay khi suất trước hết phim, chưa kịp dọn phòng
+                + prefix + firstEnd + ",70000\n"
+                + prefix + firstEnd.plusMinutes(15) + ",70000\n";
+
+        ScheduleImportReportDTO report = importCsv(csv);
+
+        assertEquals(2, report.getImportedRows());
+        assertEquals(1, report.getRejectedRows());
+        assertTrue(report.getRejections().get(0).startsWith("Dòng 3:"), report.getRejections().get(0));
+    }
+
+    @Test
+    void committedBatchesReachScheduleIndexWhenUploadBreaks() {
+        String prefix = existing.getMovie().getId() + "," + existing.getBranch().getId() + ","
+                + existing.getRoom().getId() + "," + DAY + ",";
+        // batch-size=2: 2 dòng đầu đã ghi xong thì mất kết nối
+        String csv = "movie,branch,room,startDate,startTime,price\n"
+                + prefix + "09:00,70000\n"
+                + prefix + "23:00,70000\n";
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Mất kết nối");
+            }
+        };
+
+        assertThrows(IOException.class, () -> scheduleImportService.importSchedules(
+                new SequenceInputStream(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), broken),
+                IScheduleImportService.CSV));
+
+        assertEquals(List.of(LocalTime.parse("09:00"), LocalTime.parse("23:00")), scheduleIndex.getStartTimes(
+                existing.getMovie().getId(), existing.getBranch().getId(), LocalDate.parse(DAY)));
+    }
+
+    @Test
+    void brokenUploadReleasesReservationsOfUnsavedRows() throws IOException {
+        String row = existing.getMovie().getId() + "," + existing.getBranch().getId() + ","
+                + existing.getRoom().getId() + "," + DAY + ",15:00,70000\n";
+        // batch-size=2: dòng duy nhất còn nằm trong batch chưa ghi thì mất kết nối
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Mất kết nối");
+            }
+        };
+        assertThrows(IOException.class, () -> scheduleImportService.importSchedules(new SequenceInputStream(
+                new ByteArrayInputStream(("movie,branch,room,startDate,startTime,price\n" + row)
+                        .getBytes(StandardCharsets.UTF_8)), broken), IScheduleImportService.CSV));
+
+        // Giờ đó không bị chỗ giữ cũ chặn
+        assertEquals(1, importCsv("movie,branch,room,startDate,startTime,price\n" + row).getImportedRows());
+    }
+
+    @Test
+    void rejectsRowsOverlappingSchedulesWrittenStraightToDatabase() throws IOException {
+        // Ghi 1 suất thẳng vào db (như node khác) mà không báo đổi lịch: cây khoảng có thể chưa biết, db vẫn chặn
+        jdbcTemplate.update("INSERT INTO schedule (start_date, start_time, price, remaining_seats, movie_id, branch_id, room_id) "
+                        + "VALUES (?, '18:00', 70000, 0, ?, ?, ?)", DAY, existing.getMovie().getId(),
+                existing.getBranch().getId(), existing.getRoom().getId());
+        String csv = "movie,branch,room,startDate,startTime,price\n"
+                + existing.getMovie().getId() + "," + existing.getBranch().getId() + ","
+                + existing.getRoom().getId() + "," + DAY + ",18:05,70000\n";
+
+        ScheduleImportReportDTO report = importCsv(csv);
+
+        assertEquals(0, report.getImportedRows());
+        assertEquals(1, report.getRejectedRows());
+    }
+
+    @Test
+    void rejectsOvernightRowOverlappingEarlyScheduleOfNextDayInDatabase() throws IOException {
+        int roomId = existing.getRoom().getId();
+        // Nạp cây của phòng trước rồi mới ghi thẳng vào db => chỉ lần kiểm tra trên db mới thấy suất 00:00 hôm sau
+        roomConflictDetector.findConflicts(roomId, LocalDate.parse(NEXT_DAY), LocalTime.MIDNIGHT, 1);
+        jdbcTemplate.update("INSERT INTO schedule (start_date, start_time, price, remaining_seats, movie_id, branch_id, room_id) "
+                        + "VALUES (?, '00:00', 70000, 0, ?, ?, ?)", NEXT_DAY, existing.getMovie().getId(),
+                existing.getBranch().getId(), roomId);
+        // Bắt đầu 23:59, chiếu qua nửa đêm
+        String csv = "movie,branch,room,startDate,startTime,price\n"
+                + existing.getMovie().getId() + "," + existing.getBranch().getId() + ","
+                + roomId + "," + DAY + ",23:59,70000\n";
+
+        ScheduleImportReportDTO report = importCsv(csv);
+
+        assertEquals(0, report.getImportedRows());
+        assertEquals(1, report.getRejectedRows());
+    }
+
+    @Test
+    void readsJsonLines() throws IOException {
+        String jsonLines = "{\"movie\": " + existing.getMovie().getId() + ", \"branch\": " + existing.getBranch().getId()
+                + ", \"room\": " + existing.getRoom().getId() + ", \"startDate\": \"" + DAY + "\", \"startTime\": \"10:00\", \"price\": 50000}\n"
+                + "không phải json\n";
+
+        ScheduleImportReportDTO report = scheduleImportService.importSchedules(
+                new ByteArrayInputStream(jsonLines.getBytes(StandardCharsets.UTF_8)), IScheduleImportService.JSON_LINES);
+
+        assertEquals(1, report.getImportedRows());
+        assertEquals(1, report.getRejectedRows());
+    }
+
+    @Test
+    void rejectsFileWithoutRequiredColumns() {
+        assertThrows(IllegalArgumentException.class, () -> importCsv("movie,branch,room\n1,1,1\n"));
+    }
+
+    private ScheduleImportReportDTO importCsv(String csv) throws IOException {
+        return scheduleImportService.importSchedules(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), IScheduleImportService.CSV);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.entities.Schedule;
+import com.example.cinema_back_end.repositories.IBranchRepository;
+import com.example.cinema_back_end.repositories.IRoomRepository;
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.repositories.ISeatRepository;
+import com.example.cinema_back_end.repositories.ITicketRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Chạy EXPLAIN đúng câu SQL Hibernate sinh ra cho từng query của repository (bắt qua StatementInspector)
+// và kiểm tra bảng schedule / ticket / seat được đọc qua index chứ không quét cả bảng
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.cinema_back_end.ScheduleIndexExplainTests$SqlRecorder")
+class ScheduleIndexExplainTests {
+    @Autowired
+    private IScheduleRepository scheduleRepository;
+    @Autowired
+    private IRoomRepository roomRepository;
+    @Autowired
+    private IBranchRepository branchRepository;
+    @Autowired
+    private ITicketRepository ticketRepository;
+    @Autowired
+    private ISeatRepository seatRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Schedule schedule;
+
+    @BeforeEach
+    void findSchedule() {
+        List<Schedule> schedules = scheduleRepository.findAll();
+        assumeTrue(!schedules.isEmpty(), "Cần ít nhất 1 lịch chiếu trong db");
+        schedule = schedules.get(0);
+    }
+
+    @Test
+    void scheduleLookupsUseCompositeIndex() {
+        int movieId = schedule.getMovie().getId();
+        int branchId = schedule.getBranch().getId();
+        int roomId = schedule.getRoom().getId();
+
+        assertUsesIndex("schedule", () -> scheduleRepository.getStartTimeByMovie_IdAndBranch_IdAndStartDate(
+                movieId, branchId, schedule.getStartDate()), movieId, branchId, schedule.getStartDate());
+        assertUsesIndex("schedule", () -> scheduleRepository.getSchedulesByMovie_IdAndBranch_IdAndStartDateAndStartTimeAndRoom_Id(
+                        movieId, branchId, schedule.getStartDate(), schedule.getStartTime(), roomId),
+                movieId, branchId, schedule.getStartDate(), schedule.getStartTime(), roomId);
+        assertUsesIndex("schedule", () -> roomRepository.getRoomByBranchAndMovieAndSchedule(
+                        movieId, branchId, schedule.getStartDate(), schedule.getStartTime()),
+                movieId, branchId, schedule.getStartDate(), schedule.getStartTime());
+        assertUsesIndex("schedule", () -> branchRepository.getBranchThatShowTheMovie(movieId), movieId);
+    }
+
+    @Test
+    void ticketLookupsUseScheduleSeatKey() {
+        int scheduleId = schedule.getId();
+
+        assertUsesIndex("ticket", () -> ticketRepository.getSeatIdsBySchedule_Id(scheduleId), scheduleId);
+    }
+
+    @Test
+    void seatLookupsUseRoomIndex() {
+        int roomId = schedule.getRoom().getId();
+
+        assertUsesIndex("seat", () -> seatRepository.getSeatLayoutByRoom_Id(roomId), roomId);
+    }
+
+    // Lấy câu SELECT đầu tiên query sinh ra (các câu sau là load quan hệ EAGER theo khoá chính) rồi EXPLAIN với đúng tham số
+    private void assertUsesIndex(String table, Runnable query, Object... parameters) {
+        SqlRecorder.clear();
+        query.run();
+        List<String> statements = SqlRecorder.statements();
+        assertFalse(statements.isEmpty(), "Query không sinh câu SQL nào");
+        String sql = statements.get(0);
+
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, parameters);
+        // Hibernate đặt alias theo tên bảng, vd schedule0_, seat1_
+        List<Map<String, Object>> rows = plan.stream()
+                .filter(row -> String.valueOf(row.get("table")).startsWith(table))
+                .collect(Collectors.toList());
+        assertFalse(rows.isEmpty(), "Không thấy bảng " + table + " trong plan của: " + sql);
+        for (Map<String, Object> row : rows) {
+            assertNotNull(row.get("key"), "Bảng " + table + " không dùng index: " + sql + "\n" + plan);
+            assertNotEquals("ALL", row.get("type"), "Bảng " + table + " bị quét toàn bộ: " + sql + "\n" + plan);
+        }
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+        private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        static void clear() {
+            STATEMENTS.clear();
+        }
+
+        static List<String> statements() {
+            synchronized (STATEMENTS) {
+                return new ArrayList<>(STATEMENTS);
+            }
+        }
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
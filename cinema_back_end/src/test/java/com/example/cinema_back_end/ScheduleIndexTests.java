@@ -0,0 +1,132 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.dtos.BranchDTO;
+import com.example.cinema_back_end.dtos.RoomDTO;
+import com.example.cinema_back_end.services.BookedSeatsJournal;
+import com.example.cinema_back_end.services.ScheduleIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleIndexTests {
+    private static final LocalDate DAY_1 = LocalDate.parse("2021-01-05");
+    private static final LocalDate DAY_2 = LocalDate.parse("2021-01-06");
+    private static final LocalTime MORNING = LocalTime.parse("09:00");
+    private static final LocalTime EVENING = LocalTime.parse("19:30");
+
+    private BookedSeatsJournal journal;
+    private ScheduleIndex scheduleIndex;
+
+    @BeforeEach
+    void buildIndex() {
+        journal = new BookedSeatsJournal();
+        ReflectionTestUtils.setField(journal, "maxEntries", 16);
+        journal.createEntries();
+        scheduleIndex = new ScheduleIndex();
+        ReflectionTestUtils.setField(scheduleIndex, "bookedSeatsJournal", journal);
+        rebuild(journal.currentVersion(), 30);
+    }
+
+    @Test
+    void startTimesAreDistinctAndSorted() {
+        assertEquals(List.of(MORNING, EVENING), scheduleIndex.getStartTimes(7, 1, DAY_1));
+        assertEquals(List.of(MORNING), scheduleIndex.getStartTimes(7, 1, DAY_2));
+        assertTrue(scheduleIndex.getStartTimes(7, 3, DAY_1).isEmpty());
+    }
+
+    @Test
+    void findsSchedulesRoomsAndBranchesByKeyPrefix() {
+        assertEquals(List.of(13), scheduleIndex.getScheduleIds(7, 1, DAY_1, EVENING, 11));
+        assertTrue(scheduleIndex.getScheduleIds(7, 1, DAY_2, EVENING, 11).isEmpty());
+
+        List<RoomDTO> rooms = scheduleIndex.getRooms(7, 1, DAY_1, EVENING);
+        assertEquals(List.of(11, 12), rooms.stream().map(RoomDTO::getId).collect(Collectors.toList()));
+        assertEquals(30, rooms.get(0).getRemainingSeats());
+        assertNull(scheduleIndex.getRooms(7, 1, DAY_1, MORNING).get(0).getRemainingSeats());
+
+        assertEquals(List.of(1, 2), scheduleIndex.getBranches(7).stream().map(BranchDTO::getId).collect(Collectors.toList()));
+        assertTrue(scheduleIndex.getBranches(9).isEmpty());
+    }
+
+    @Test
+    void bookingDecrementsRemainingSeatsOfThatScheduleOnly() {
+        book(13, 4);
+        book(12, 2);
+        // Lịch không có trong chỉ mục thì bỏ qua
+        book(99, 1);
+
+        List<RoomDTO> rooms = scheduleIndex.getRooms(7, 1, DAY_1, EVENING);
+        assertEquals(26, rooms.get(0).getRemainingSeats());
+        assertEquals(40, rooms.get(1).getRemainingSeats());
+        assertNull(scheduleIndex.getRooms(7, 1, DAY_1, MORNING).get(0).getRemainingSeats());
+    }
+
+    @Test
+    void rebuildAppliesBookingsCommittedWhileReadingOnlyOnce() {
+        // Lượt đầu đã có trong các dòng đọc từ db (30 - 2), lượt sau commit khi đang đọc
+        book(13, 2);
+        long loadedVersion = journal.currentVersion();
+        journal.record(13, 5);
+
+        assertTrue(rebuild(loadedVersion, 28));
+        assertEquals(23, scheduleIndex.getRooms(7, 1, DAY_1, EVENING).get(0).getRemainingSeats());
+        scheduleIndex.applyBookings();
+        assertEquals(23, scheduleIndex.getRooms(7, 1, DAY_1, EVENING).get(0).getRemainingSeats());
+    }
+
+    @Test
+    void reportsMemoryFootprint() {
+        assertEquals(6, scheduleIndex.getStats().getSchedules());
+        assertTrue(scheduleIndex.getStats().getMemoryBytes() >= 6 * 36);
+    }
+
+    // Cố ý không sắp xếp để kiểm tra chỉ mục tự sắp
+    private boolean rebuild(long loadedVersion, int seatsOfSchedule13) {
+        List<Object[]> rows = new ArrayList<>(Arrays.asList(
+                row(10, 7, 2, DAY_1, EVENING, 21, 50),
+                row(11, 7, 1, DAY_1, EVENING, 12, 40),
+                row(12, 7, 1, DAY_1, MORNING, 11, null),
+                row(13, 7, 1, DAY_1, EVENING, 11, seatsOfSchedule13),
+                row(14, 7, 1, DAY_2, MORNING, 11, 60),
+                row(15, 8, 3, DAY_1, MORNING, 31, 10)));
+        return scheduleIndex.rebuild(rows, loadedVersion,
+                List.of(branch(1), branch(2), branch(3)),
+                List.of(room(11, 1), room(12, 1), room(21, 2), room(31, 3)));
+    }
+
+    private void book(int scheduleId, int seats) {
+        journal.record(scheduleId, seats);
+        scheduleIndex.applyBookings();
+    }
+
+    private static Object[] row(int scheduleId, int movieId, int branchId, LocalDate date, LocalTime time, int roomId,
+                                Integer remainingSeats) {
+        return new Object[]{scheduleId, movieId, branchId, date, time, roomId, remainingSeats};
+    }
+
+    private static BranchDTO branch(int id) {
+        BranchDTO branch = new BranchDTO();
+        branch.setId(id);
+        branch.setName("Chi nhánh " + id);
+        return branch;
+    }
+
+    private static RoomDTO room(int id, int branchId) {
+        RoomDTO room = new RoomDTO();
+        room.setId(id);
+        room.setName("Phòng " + id);
+        room.setBranch(branch(branchId));
+        return room;
+    }
+}
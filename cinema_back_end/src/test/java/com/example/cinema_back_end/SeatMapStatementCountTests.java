@@ -0,0 +1,64 @@
+package com.example.cinema_back_end;
+
+import com.example.cinema_back_end.entities.Schedule;
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.repositories.ITicketRepository;
+import com.example.cinema_back_end.services.ISeatService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Sơ đồ ghế chỉ được đọc id ghế đã bán, không được load entity vé (vé -> bill -> user -> roles đều EAGER)
+// Lần đầu tối đa 3 câu: lấy phòng của lịch + sơ đồ ghế của phòng + id ghế đã bán; các lần sau chỉ còn 1 câu
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SeatMapStatementCountTests {
+    private static final int MAX_STATEMENTS_PER_SEAT_MAP = 3;
+
+    @Autowired
+    private ISeatService seatService;
+    @Autowired
+    private IScheduleRepository scheduleRepository;
+    @Autowired
+    private ITicketRepository ticketRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Integer scheduleId;
+
+    @BeforeEach
+    void findScheduleWithTickets() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Lịch đã bán vé thì mới thấy được chuyện load cả graph vé
+        List<Integer> bookedScheduleIds = ticketRepository.getBookedScheduleIds();
+        List<Schedule> schedules = scheduleRepository.findAll();
+        assumeTrue(!schedules.isEmpty(), "Cần ít nhất 1 lịch chiếu trong db");
+        scheduleId = bookedScheduleIds.isEmpty() ? schedules.get(0).getId() : bookedScheduleIds.get(0);
+    }
+
+    @Test
+    void seatMapIssuesFixedNumberOfStatements() {
+        statistics.clear();
+        seatService.getSeatsByScheduleId(scheduleId);
+        long firstLoad = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        seatService.getSeatsByScheduleId(scheduleId);
+        long cachedLoad = statistics.getPrepareStatementCount();
+        long loadedEntities = statistics.getEntityLoadCount();
+
+        assertTrue(firstLoad <= MAX_STATEMENTS_PER_SEAT_MAP, "Lần đầu tốn " + firstLoad + " câu SQL");
+        assertEquals(1, cachedLoad, "Sơ đồ ghế đã cache mà vẫn tốn " + cachedLoad + " câu SQL");
+        assertEquals(0, loadedEntities, "Sơ đồ ghế load " + loadedEntities + " entity");
+    }
+}
@@ -261,3 +261,35 @@ test.describe("Full Coverage API Tests (POST /bill)", () => {
     expect(response.status()).toBe(401);
   });
 });
+
+test.describe("Idempotency-Key (POST /bill)", () => {
+  test("TC_B20: Gửi lại cùng key trả lại đúng kết quả lần đầu", async ({
+    authRequest,
+  }) => {
+    const key = `test-${Date.now()}-${Math.random()}`;
+    const body = { ...BASE_BODY, listSeatIds: generateRandomSeats(1) };
+    const first = await authRequest.post(BASE_URL + ENDPOINT, {
+      headers: { Authorization: `Bearer ${validToken}`, "Idempotency-Key": key },
+      data: body,
+    });
+    const second = await authRequest.post(BASE_URL + ENDPOINT, {
+      headers: { Authorization: `Bearer ${validToken}`, "Idempotency-Key": key },
+      data: body,
+    });
+    expect(second.status()).toBe(first.status());
+    expect(await second.text()).toBe(await first.text());
+  });
+
+  test("TC_B21: Cùng key nhưng khác nội dung", async ({ authRequest }) => {
+    const key = `test-${Date.now()}-${Math.random()}`;
+    await authRequest.post(BASE_URL + ENDPOINT, {
+      headers: { Authorization: `Bearer ${validToken}`, "Idempotency-Key": key },
+      data: { ...BASE_BODY, listSeatIds: generateRandomSeats(1) },
+    });
+    const response = await authRequest.post(BASE_URL + ENDPOINT, {
+      headers: { Authorization: `Bearer ${validToken}`, "Idempotency-Key": key },
+      data: { ...BASE_BODY, listSeatIds: generateRandomSeats(2) },
+    });
+    expect(response.status()).toBe(422);
+  });
+});
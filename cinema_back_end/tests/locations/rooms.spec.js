@@ -205,4 +205,18 @@ test.describe("FULL SUITE: Schedule API Testing ", () => {
     });
     expect(response.status()).toBe(400);
   });
+
+  test("TC_RM22: Mỗi phòng trả kèm số ghế còn trống", async ({
+    authRequest,
+  }) => {
+    const response = await authRequest.get(`${BASE_URL}${API_PATH}`, {
+      params: VALID_DATA,
+    });
+    expect(response.status()).toBe(200);
+    const rooms = await response.json();
+    for (const room of rooms) {
+      expect(typeof room.remainingSeats).toBe("number");
+      expect(room.remainingSeats).toBeGreaterThanOrEqual(0);
+    }
+  });
 });
@@ -173,4 +173,35 @@ test.describe("Tìm Kiếm Phim API Tests (GET /api/movies/showing/search)", ()
     );
     expect(response.status()).toBe(200);
   });
+
+  test("TC_S23: Tìm không dấu ra cùng kết quả với có dấu", async ({
+    authRequest,
+  }) => {
+    const withDiacritics = await (
+      await searchMovies(authRequest, "Trạng Tí")
+    ).json();
+    const response = await searchMovies(authRequest, "trang ti");
+    expect(response.status()).toBe(200);
+    const withoutDiacritics = await response.json();
+    expect(withoutDiacritics.map((movie) => movie.id)).toEqual(
+      withDiacritics.map((movie) => movie.id)
+    );
+  });
+
+  test("TC_S24: Gợi ý tên phim theo tiền tố, cho phép cache", async ({
+    publicRequest,
+  }) => {
+    const response = await publicRequest.get(
+      `${BASE_URL}/api/movies/showing/suggest?prefix=${encodeURIComponent("a")}&limit=5`
+    );
+    expect(response.status()).toBe(200);
+    expect(response.headers()["cache-control"]).toContain("max-age=60");
+    const body = await response.json();
+    expect(Array.isArray(body)).toBe(true);
+    expect(body.length).toBeLessThanOrEqual(5);
+    for (const movie of body) {
+      expect(movie).toHaveProperty("id");
+      expect(movie).toHaveProperty("name");
+    }
+  });
 });
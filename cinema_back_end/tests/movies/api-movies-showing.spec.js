@@ -5,6 +5,17 @@ import { expect } from "@playwright/test";
 
 const BASE_URL = "http://localhost:8080";
 const ENDPOINT = "/api/movies/showing";
+// Actuator chạy ở cổng quản trị riêng, chỉ nghe trên localhost
+const MANAGEMENT_URL = "http://127.0.0.1:8081";
+
+// Số lần trúng cache body đã serialize (danh sách phim, rạp chiếu phim)
+const responseCacheHits = async (request) => {
+  const response = await request.get(
+    `${MANAGEMENT_URL}/actuator/metrics/cache.gets?tag=cache:responseBody&tag=result:hit`
+  );
+  expect(response.status()).toBe(200);
+  return (await response.json()).measurements[0].value;
+};
 
 test.describe("Phim Đang Chiếu API Tests (GET /api/movies/showing)", () => {
   // GROUP 1: HAPPY PATH
@@ -79,4 +90,109 @@ test.describe("Phim Đang Chiếu API Tests (GET /api/movies/showing)", () => {
     expect(duration).toBeLessThan(2000);
     console.log(`Request duration: ${duration}ms`);
   });
+
+  // GROUP: CACHE DANH SÁCH PHIM
+  test("TC_M09: Gọi lại lần 2 được trả từ cache", async ({
+    publicRequest,
+  }) => {
+    await publicRequest.get(`${BASE_URL}${ENDPOINT}`);
+    const before = await responseCacheHits(publicRequest);
+
+    const response = await publicRequest.get(`${BASE_URL}${ENDPOINT}`);
+    expect(response.status()).toBe(200);
+
+    expect(await responseCacheHits(publicRequest)).toBeGreaterThan(before);
+  });
+
+  test("TC_M10: Cổng của api không mở số liệu cache", async ({
+    authRequest,
+  }) => {
+    const response = await authRequest.get(`${BASE_URL}/actuator/metrics`);
+    expect(response.status()).not.toBe(200);
+  });
+
+  // GROUP: DANH SÁCH RÚT GỌN + PHÂN TRANG THEO KHOÁ
+  test("TC_M11: Danh sách rút gọn chỉ có các trường của lưới phim", async ({
+    publicRequest,
+  }) => {
+    const response = await publicRequest.get(
+      `${BASE_URL}/api/movies/showing/summaries?limit=2`
+    );
+    expect(response.status()).toBe(200);
+    const body = await response.json();
+    expect(body.length).toBeLessThanOrEqual(2);
+    for (const movie of body) {
+      expect(Object.keys(movie).sort()).toEqual(
+        ["id", "name", "shortDescription", "smallImageURl"].sort()
+      );
+    }
+  });
+
+  test("TC_M12: Trang sau bắt đầu sau phim cuối của trang trước", async ({
+    publicRequest,
+  }) => {
+    const first = await (
+      await publicRequest.get(`${BASE_URL}/api/movies/showing/summaries?limit=2`)
+    ).json();
+    test.skip(first.length < 2, "Cần ít nhất 2 phim đang chiếu");
+
+    const lastId = first[first.length - 1].id;
+    const response = await publicRequest.get(
+      `${BASE_URL}/api/movies/showing/summaries?limit=2&afterId=${lastId}`
+    );
+    expect(response.status()).toBe(200);
+    const second = await response.json();
+    for (const movie of second) {
+      expect(movie.id).toBeLessThan(lastId);
+    }
+  });
+
+  test("TC_M13: limit không hợp lệ", async ({ publicRequest }) => {
+    const response = await publicRequest.get(
+      `${BASE_URL}/api/movies/showing/summaries?limit=0`
+    );
+    expect(response.status()).toBe(400);
+  });
+
+  // GROUP: LỌC THEO THỂ LOẠI / NGÔN NGỮ / ĐỘ TUỔI
+  test("TC_M14: Lọc theo thể loại trả về phim khớp và số đếm", async ({
+    publicRequest,
+  }) => {
+    const all = await (
+      await publicRequest.get(`${BASE_URL}/api/movies/showing/facets`)
+    ).json();
+    expect(all).toHaveProperty("facets.categories");
+    expect(all).toHaveProperty("facets.language");
+    expect(all).toHaveProperty("facets.rated");
+
+    const categories = Object.keys(all.facets.categories);
+    test.skip(categories.length === 0, "Chưa có phim đang chiếu nào có thể loại");
+    const category = categories[0];
+
+    const response = await publicRequest.get(
+      `${BASE_URL}/api/movies/showing/facets?categories=${encodeURIComponent(category)}`
+    );
+    expect(response.status()).toBe(200);
+    const body = await response.json();
+    expect(body.movies.length).toBe(all.facets.categories[category]);
+  });
+
+  // GROUP: BODY NÉN SẴN
+  test("TC_M15: Trả gzip khi client chấp nhận, json thường khi không", async ({
+    publicRequest,
+  }) => {
+    const gzipped = await publicRequest.get(`${BASE_URL}${ENDPOINT}`, {
+      headers: { "Accept-Encoding": "gzip" },
+    });
+    expect(gzipped.status()).toBe(200);
+    expect(gzipped.headers()["content-encoding"]).toBe("gzip");
+    expect(gzipped.headers()["vary"]).toContain("Accept-Encoding");
+
+    const plain = await publicRequest.get(`${BASE_URL}${ENDPOINT}`, {
+      headers: { "Accept-Encoding": "identity" },
+    });
+    expect(plain.status()).toBe(200);
+    expect(plain.headers()["content-encoding"]).toBeUndefined();
+    expect(await plain.json()).toEqual(await gzipped.json());
+  });
 });
@@ -172,4 +172,150 @@ test.describe("API Schedule Testing (Base Choice + SQL Injection)", () => {
 
     expect(response.status()).toBe(401);
   });
+
+  // GROUP: LỊCH NHIỀU NGÀY
+  test("TC18: Lịch 10 ngày trong 1 request khớp với giờ chiếu từng ngày", async ({
+    authRequest,
+  }) => {
+    const response = await authRequest.get(`${BASE_URL}/api/schedule/calendar`, {
+      params: {
+        movieId: VALID_DATA.movieId,
+        branchId: VALID_DATA.branchId,
+        fromDate: VALID_DATA.startDate,
+        days: 10,
+      },
+    });
+    expect(response.status()).toBe(200);
+    const calendar = await response.json();
+    const dates = Object.keys(calendar);
+    expect(dates.length).toBe(10);
+    expect(dates[0]).toBe(VALID_DATA.startDate);
+
+    const startTimes = await authRequest.get(`${BASE_URL}${API_PATH}`, {
+      params: VALID_DATA,
+    });
+    expect([...calendar[VALID_DATA.startDate]].sort()).toEqual(
+      [...(await startTimes.json())].sort()
+    );
+  });
+
+  test("TC19: Lịch quá 31 ngày", async ({ authRequest }) => {
+    const response = await authRequest.get(`${BASE_URL}/api/schedule/calendar`, {
+      params: {
+        movieId: VALID_DATA.movieId,
+        branchId: VALID_DATA.branchId,
+        fromDate: VALID_DATA.startDate,
+        days: 40,
+      },
+    });
+    expect(response.status()).toBe(400);
+  });
+
+  // GROUP: CÂY CHỌN SUẤT CHIẾU
+  test("TC20: Cây suất chiếu của phim khớp với giờ chiếu từng ngày", async ({
+    authRequest,
+  }) => {
+    const response = await authRequest.get(`${BASE_URL}/api/schedule/showtimes`, {
+      params: { movieId: VALID_DATA.movieId, fromDate: VALID_DATA.startDate, days: 1 },
+    });
+    expect(response.status()).toBe(200);
+    const branches = await response.json();
+    expect(Array.isArray(branches)).toBeTruthy();
+
+    for (const branch of branches) {
+      // Chỉ có các ngày trong khoảng đã hỏi
+      expect(branch.dates.every((d) => d.date === VALID_DATA.startDate)).toBeTruthy();
+      for (const date of branch.dates) {
+        for (const showtime of date.times) {
+          expect(showtime.rooms.length).toBeGreaterThan(0);
+          for (const room of showtime.rooms) {
+            expect(room.scheduleId).toBeGreaterThan(0);
+            expect(room.roomId).toBeGreaterThan(0);
+          }
+        }
+      }
+    }
+
+    const branch = branches.find((b) => b.id === VALID_DATA.branchId);
+    const date = branch?.dates.find((d) => d.date === VALID_DATA.startDate);
+    const startTimes = await authRequest.get(`${BASE_URL}${API_PATH}`, {
+      params: VALID_DATA,
+    });
+    expect((date?.times ?? []).map((t) => t.time).sort()).toEqual(
+      [...(await startTimes.json())].sort()
+    );
+  });
+
+  test("TC21: Cây suất chiếu không có token", async ({ publicRequest }) => {
+    const response = await publicRequest.get(`${BASE_URL}/api/schedule/showtimes`, {
+      params: { movieId: VALID_DATA.movieId },
+    });
+    expect(response.status()).toBe(401);
+  });
+
+  // GROUP: CHỈ MỤC LỊCH CHIẾU TRONG BỘ NHỚ
+  test("TC22: Thống kê chỉ mục lịch chiếu có số lịch và bộ nhớ", async ({
+    authRequest,
+  }) => {
+    const response = await authRequest.get(`${BASE_URL}/api/schedule/index-stats`);
+    expect(response.status()).toBe(200);
+    const stats = await response.json();
+    expect(stats.schedules).toBeGreaterThan(0);
+    expect(stats.memoryBytes).toBeGreaterThan(0);
+  });
+
+  // GROUP: NHẬP LỊCH CHIẾU HÀNG LOẠT
+  test("TC23: Khách hàng không nhập được lịch chiếu qua api (chỉ chạy từ dòng lệnh)", async ({
+    authRequest,
+  }) => {
+    const response = await authRequest.post(`${BASE_URL}/api/schedule/import`, {
+      params: { format: "csv" },
+      headers: { "Content-Type": "text/csv" },
+      data: "movie,branch,room,startDate,startTime,price\n7,1,1,2099-01-01,09:00,70000\n",
+    });
+    expect(response.ok()).toBeFalsy();
+  });
+
+  // GROUP: KIỂM TRA TRÙNG GIỜ TRONG PHÒNG
+  test("TC24: Suất trùng giờ với suất đã có trong phòng bị báo trùng", async ({
+    authRequest,
+  }) => {
+    const tree = await authRequest.get(`${BASE_URL}/api/schedule/showtimes`, {
+      params: { movieId: VALID_DATA.movieId, fromDate: VALID_DATA.startDate },
+    });
+    const date = (await tree.json())[0]?.dates[0];
+    test.skip(!date, "Phim chưa có lịch chiếu");
+    const showtime = date.times[0];
+    const room = showtime.rooms[0];
+
+    const response = await authRequest.get(`${BASE_URL}/api/schedule/room-conflicts`, {
+      params: {
+        roomId: room.roomId,
+        movieId: VALID_DATA.movieId,
+        startDate: date.date,
+        startTime: showtime.time,
+      },
+    });
+    expect(response.status()).toBe(200);
+    const result = await response.json();
+    expect(result.conflict).toBe(true);
+    expect(result.conflictingScheduleIds).toContain(room.scheduleId);
+    expect(result.cleaningMinutes).toBeGreaterThanOrEqual(0);
+  });
+
+  test("TC25: Kiểm tra trùng giờ với phim không tồn tại", async ({
+    authRequest,
+  }) => {
+    const response = await authRequest.get(`${BASE_URL}/api/schedule/room-conflicts`, {
+      params: { roomId: 1, movieId: 999999, startDate: "2099-01-01", startTime: "09:00" },
+    });
+    expect(response.status()).toBe(400);
+  });
+
+  test("TC26: Kiểm tra trùng giờ không có token", async ({ publicRequest }) => {
+    const response = await publicRequest.get(`${BASE_URL}/api/schedule/room-conflicts`, {
+      params: { roomId: 1, movieId: VALID_DATA.movieId, startDate: "2099-01-01", startTime: "09:00" },
+    });
+    expect(response.status()).toBe(401);
+  });
 });
@@ -0,0 +1,161 @@
+/** @format */
+
+import { test } from "../fixtures/auth-fixture.js";
+import { expect } from "@playwright/test";
+
+const BASE_URL = "http://localhost:8080";
+const HOLD_PATH = "/api/seats/hold";
+const SEATS_PATH = "/api/seats";
+const BILL_PATH = "/api/bills/create-new-bill";
+
+const REAL_USER_ID = 108;
+const REAL_SCHEDULE_ID = 1;
+
+// Lấy ra n ghế còn trống của lịch chiếu
+const findFreeSeatIds = async (authRequest, count) => {
+  const response = await authRequest.get(`${BASE_URL}${SEATS_PATH}`, {
+    params: { scheduleId: REAL_SCHEDULE_ID },
+  });
+  expect(response.status()).toBe(200);
+  const seats = await response.json();
+  return seats
+    .filter((seat) => seat.isOccupied !== 1)
+    .slice(0, count)
+    .map((seat) => seat.id);
+};
+
+const hold = (authRequest, listSeatIds) =>
+  authRequest.post(`${BASE_URL}${HOLD_PATH}`, {
+    data: {
+      userId: REAL_USER_ID,
+      scheduleId: REAL_SCHEDULE_ID,
+      listSeatIds,
+    },
+  });
+
+const release = (authRequest, leaseId) =>
+  authRequest.delete(`${BASE_URL}${HOLD_PATH}`, {
+    params: { leaseId, userId: REAL_USER_ID },
+  });
+
+test.describe("API /api/seats/hold - Giữ ghế trong lúc thanh toán", () => {
+  // Cùng 1 khách trên cùng lịch chiếu chỉ được có 1 lượt giữ còn hạn => các test không chạy song song
+  test.describe.configure({ mode: "serial" });
+
+  test("TC_H1: Giữ ghế thành công, ghế hiện là đã có người", async ({
+    authRequest,
+  }) => {
+    const seatIds = await findFreeSeatIds(authRequest, 1);
+    test.skip(seatIds.length < 1, "Lịch chiếu đã hết ghế trống");
+
+    const response = await hold(authRequest, seatIds);
+    expect(response.status()).toBe(200);
+    const lease = await response.json();
+    expect(lease.leaseId).toBeTruthy();
+    expect(lease.ttlSeconds).toBeGreaterThan(0);
+
+    const seats = await (
+      await authRequest.get(`${BASE_URL}${SEATS_PATH}`, {
+        params: { scheduleId: REAL_SCHEDULE_ID },
+      })
+    ).json();
+    expect(seats.find((seat) => seat.id === seatIds[0]).isOccupied).toBe(1);
+
+    expect((await release(authRequest, lease.leaseId)).status()).toBe(204);
+  });
+
+  test("TC_H2: Ghế đang được giữ thì không giữ được lần nữa", async ({
+    authRequest,
+  }) => {
+    const seatIds = await findFreeSeatIds(authRequest, 1);
+    test.skip(seatIds.length < 1, "Lịch chiếu đã hết ghế trống");
+
+    const lease = await (await hold(authRequest, seatIds)).json();
+    const second = await hold(authRequest, seatIds);
+    expect(second.status()).toBe(417);
+
+    await release(authRequest, lease.leaseId);
+  });
+
+  test("TC_H3: Trả ghế xong thì giữ lại được", async ({ authRequest }) => {
+    const seatIds = await findFreeSeatIds(authRequest, 1);
+    test.skip(seatIds.length < 1, "Lịch chiếu đã hết ghế trống");
+
+    const lease = await (await hold(authRequest, seatIds)).json();
+    await release(authRequest, lease.leaseId);
+
+    const again = await hold(authRequest, seatIds);
+    expect(again.status()).toBe(200);
+    await release(authRequest, (await again.json()).leaseId);
+  });
+
+  test("TC_H4: Đặt vé từ lượt giữ ghế", async ({ authRequest }) => {
+    const seatIds = await findFreeSeatIds(authRequest, 2);
+    test.skip(seatIds.length < 2, "Lịch chiếu đã hết ghế trống");
+
+    const lease = await (await hold(authRequest, seatIds)).json();
+    const response = await authRequest.post(`${BASE_URL}${BILL_PATH}`, {
+      data: {
+        userId: REAL_USER_ID,
+        scheduleId: REAL_SCHEDULE_ID,
+        leaseId: lease.leaseId,
+      },
+    });
+    expect(response.status()).toBe(200);
+
+    // Lượt giữ đã dùng rồi thì không dùng lại được
+    const reuse = await authRequest.post(`${BASE_URL}${BILL_PATH}`, {
+      data: {
+        userId: REAL_USER_ID,
+        scheduleId: REAL_SCHEDULE_ID,
+        leaseId: lease.leaseId,
+      },
+    });
+    expect(reuse.status()).toBe(417);
+  });
+
+  test("TC_H5: leaseId không tồn tại", async ({ authRequest }) => {
+    const response = await authRequest.post(`${BASE_URL}${BILL_PATH}`, {
+      data: {
+        userId: REAL_USER_ID,
+        scheduleId: REAL_SCHEDULE_ID,
+        leaseId: "khong-ton-tai",
+      },
+    });
+    expect(response.status()).toBe(417);
+  });
+
+  test("TC_H6: Ghế không thuộc phòng chiếu này", async ({ authRequest }) => {
+    const response = await hold(authRequest, [999999]);
+    expect(response.status()).toBe(417);
+  });
+
+  test("TC_H7: Đang giữ ghế của lịch chiếu thì không giữ thêm lượt khác", async ({
+    authRequest,
+  }) => {
+    const seatIds = await findFreeSeatIds(authRequest, 2);
+    test.skip(seatIds.length < 2, "Lịch chiếu đã hết ghế trống");
+
+    const lease = await (await hold(authRequest, [seatIds[0]])).json();
+    const second = await hold(authRequest, [seatIds[1]]);
+    expect(second.status()).toBe(417);
+
+    // Trả lượt đầu rồi thì giữ được
+    await release(authRequest, lease.leaseId);
+    const again = await hold(authRequest, [seatIds[1]]);
+    expect(again.status()).toBe(200);
+    await release(authRequest, (await again.json()).leaseId);
+  });
+
+  test("TC_H8: Giữ quá số ghế cho phép của 1 lượt", async ({ authRequest }) => {
+    const seatIds = await findFreeSeatIds(authRequest, 9);
+    test.skip(seatIds.length < 9, "Lịch chiếu không đủ ghế trống");
+
+    const response = await hold(authRequest, seatIds);
+    expect(response.status()).toBe(417);
+    // Bị từ chối thì không giữ ghế nào
+    const single = await hold(authRequest, seatIds.slice(0, 1));
+    expect(single.status()).toBe(200);
+    await release(authRequest, (await single.json()).leaseId);
+  });
+});
@@ -0,0 +1,67 @@
+/** @format */
+
+import { test } from "../fixtures/auth-fixture.js";
+import { expect } from "@playwright/test";
+
+const BASE_URL = "http://localhost:8080";
+const SEATS_PATH = "/api/seats";
+const HOLD_PATH = "/api/seats/hold";
+
+// Khác khách của seat-hold.spec: mỗi khách chỉ có 1 lượt giữ còn hạn trên 1 lịch chiếu, 2 file chạy song song
+const REAL_USER_ID = 109;
+const REAL_SCHEDULE_ID = 1;
+
+const getSeats = (authRequest, etag) =>
+  authRequest.get(`${BASE_URL}${SEATS_PATH}`, {
+    params: { scheduleId: REAL_SCHEDULE_ID },
+    headers: etag ? { "If-None-Match": etag } : {},
+  });
+
+test.describe("API GET /api/seats - ETag / 304", () => {
+  test("TC_E1: Trả về ETag cùng sơ đồ ghế", async ({ authRequest }) => {
+    const response = await getSeats(authRequest);
+    expect(response.status()).toBe(200);
+    expect(response.headers()["etag"]).toBeTruthy();
+  });
+
+  test("TC_E2: Gửi lại ETag khi ghế chưa đổi thì nhận 304", async ({
+    authRequest,
+  }) => {
+    const etag = (await getSeats(authRequest)).headers()["etag"];
+    const response = await getSeats(authRequest, etag);
+    expect(response.status()).toBe(304);
+    expect(response.headers()["etag"]).toBe(etag);
+  });
+
+  test("TC_E3: Có người giữ ghế thì ETag đổi", async ({ authRequest }) => {
+    const first = await getSeats(authRequest);
+    const etag = first.headers()["etag"];
+    const freeSeat = (await first.json()).find((seat) => seat.isOccupied !== 1);
+    test.skip(!freeSeat, "Lịch chiếu đã hết ghế trống");
+
+    const lease = await (
+      await authRequest.post(`${BASE_URL}${HOLD_PATH}`, {
+        data: {
+          userId: REAL_USER_ID,
+          scheduleId: REAL_SCHEDULE_ID,
+          listSeatIds: [freeSeat.id],
+        },
+      })
+    ).json();
+
+    const response = await getSeats(authRequest, etag);
+    expect(response.status()).toBe(200);
+    expect(response.headers()["etag"]).not.toBe(etag);
+
+    await authRequest.delete(`${BASE_URL}${HOLD_PATH}`, {
+      params: { leaseId: lease.leaseId, userId: REAL_USER_ID },
+    });
+  });
+
+  test("TC_E4: ETag sai định dạng thì vẫn trả sơ đồ ghế", async ({
+    authRequest,
+  }) => {
+    const response = await getSeats(authRequest, '"khong-ton-tai"');
+    expect(response.status()).toBe(200);
+  });
+});
@@ -4,7 +4,7 @@ import { expect } from "@playwright/test";
 
 const BASE_URL = "http://localhost:8080";
 
-test.describe("API Tests for GET /api/seats (TC_S1 - TC_S9)", () => {
+test.describe("API Tests for GET /api/seats (TC_S1 - TC_S10)", () => {
   // TC_S1: HAPPY PATH - LẤY GHẾ THÀNH CÔNG
   test("TC_S1: Lấy danh sách ghế thành công với scheduleId hợp lệ (scheduleId=1)", async ({
     request,
@@ -130,4 +130,15 @@ test.describe("API Tests for GET /api/seats (TC_S1 - TC_S9)", () => {
 
     expect(response.status()).toBe(400);
   });
+
+  // TC_S10: STREAM - LỊCH KHÔNG TỒN TẠI
+  test("TC_S10: Theo dõi ghế của lịch chiếu không tồn tại bị từ chối", async ({ request }) => {
+    const response = await request.get(`${BASE_URL}/api/seats/stream`, {
+      params: {
+        scheduleId: 999999,
+      },
+    });
+
+    expect(response.status()).toBe(404);
+  });
 });
@@ -0,0 +1,68 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.CinemaBackEndApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Dựng nguyên app back end trên 1 db H2 nhúng (chế độ MySQL) để benchmark chạy đúng code thật,
+// chỉ tắt dữ liệu demo và log SQL cho khỏi làm lệch số đo.
+public class BenchmarkContext implements AutoCloseable {
+    private final ConfigurableApplicationContext context;
+    private final TransactionTemplate transactionTemplate;
+
+    public BenchmarkContext() {
+        context = new SpringApplicationBuilder(CinemaBackEndApplication.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:cinema-" + System.nanoTime()
+                                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.database-platform=org.hibernate.dialect.MySQL8Dialect",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        // Migration viết cho MySQL, db H2 tạm thì để Hibernate tạo schema
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "logging.level.root=WARN",
+                        "cinema.demo-data.enabled=false",
+                        // Benchmark tự dựng lại chỉ mục khi cần, không để luồng dựng định kỳ chen vào lúc đo
+                        "cinema.schedule-index.refresh-minutes=0",
+                        // CinemaSeeder dựng lịch chiếu từ 05/01/2021
+                        "cinema.schedule-index.from-date=2021-01-05",
+                        // Lịch của CinemaSeeder đều đã qua, không để kho ghế bị dọn giữa lúc đo
+                        "cinema.seat-inventory.eviction-minutes=0",
+                        "server.port=0",
+                        // Không mở cổng quản trị cố định, các lần chạy song song không tranh cổng
+                        "management.server.port=-1")
+                .logStartupInfo(false)
+                .run();
+        transactionTemplate = new TransactionTemplate(getBean(PlatformTransactionManager.class));
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    // Giống open-in-view của request thật: các proxy lazy vẫn đọc được trong lúc service chạy
+    public <T> T inTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+
+    public <T> T inRolledBackTransaction(Supplier<T> action) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return action.get();
+        });
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
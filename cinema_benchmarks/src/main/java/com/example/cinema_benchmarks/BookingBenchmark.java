@@ -0,0 +1,89 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.dtos.BookingRequestDTO;
+import com.example.cinema_back_end.entities.User;
+import com.example.cinema_back_end.repositories.ITicketRepository;
+import com.example.cinema_back_end.services.IBillService;
+import com.example.cinema_back_end.services.SeatInventory;
+import com.example.cinema_back_end.services.SeatLayout;
+import com.example.cinema_back_end.services.SeatLayoutCache;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Xét trùng ghế khi đặt vé: kho ghế trong bộ nhớ (giành được / bị trùng) và cả lượt đặt vé ghi xuống db rồi roll back
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+    @Param({"50", "500", "2000"})
+    private int seats;
+
+    private BenchmarkContext context;
+    private SeatInventory seatInventory;
+    private IBillService billService;
+    private EntityManager entityManager;
+    private Integer scheduleId;
+    private List<Integer> freeSeatIds;
+    private List<Integer> soldSeatIds;
+    private BookingRequestDTO bookingRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        CinemaSeeder seeder = new CinemaSeeder(context);
+        User user = seeder.seedUser();
+        scheduleId = seeder.seedSchedule(seats, 0.5, user).getId();
+
+        List<Integer> sold = context.getBean(ITicketRepository.class).getSeatIdsBySchedule_Id(scheduleId);
+        SeatLayout layout = context.getBean(SeatLayoutCache.class).getLayoutBySchedule(scheduleId);
+        List<Integer> free = IntStream.range(0, layout.size()).map(layout::seatIdAt).boxed()
+                .filter(seatId -> !sold.contains(seatId))
+                .collect(Collectors.toList());
+        // 2 ghế như 1 lượt đặt vé bình thường, ghế ở cuối phòng để tìm chỉ số ghế không bị lợi thế
+        freeSeatIds = Arrays.asList(free.get(free.size() - 2), free.get(free.size() - 1));
+        soldSeatIds = Arrays.asList(sold.get(0), sold.get(1));
+
+        seatInventory = context.getBean(SeatInventory.class);
+        billService = context.getBean(IBillService.class);
+        entityManager = context.getBean(EntityManager.class);
+        bookingRequest = new BookingRequestDTO();
+        bookingRequest.setUserId(user.getId());
+        bookingRequest.setScheduleId(scheduleId);
+        bookingRequest.setListSeatIds(freeSeatIds);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean claimFreeSeats() {
+        boolean claimed = seatInventory.claim(scheduleId, freeSeatIds);
+        seatInventory.release(scheduleId, freeSeatIds);
+        return claimed;
+    }
+
+    @Benchmark
+    public boolean claimTakenSeats() {
+        return seatInventory.claim(scheduleId, soldSeatIds);
+    }
+
+    @Benchmark
+    public Object createNewBill() {
+        return context.inRolledBackTransaction(() -> {
+            billService.createNewBill(bookingRequest);
+            entityManager.flush();
+            return bookingRequest;
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.entities.*;
+import com.example.cinema_back_end.repositories.*;
+import com.example.cinema_back_end.security.repo.IUserRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Sinh dữ liệu cho benchmark: phòng có số ghế tuỳ ý, lịch chiếu đã bán 1 phần ghế, lịch sử vé của 1 người dùng
+public class CinemaSeeder {
+    private final IBranchRepository branchRepository;
+    private final IMovieRepository movieRepository;
+    private final IRoomRepository roomRepository;
+    private final ISeatRepository seatRepository;
+    private final IScheduleRepository scheduleRepository;
+    private final ITicketRepository ticketRepository;
+    private final IBillRepository billRepository;
+    private final IUserRepository userRepository;
+    // Cố định seed để các lần chạy trước/sau tối ưu so được với nhau
+    private final Random random = new Random(42);
+    private int sequence;
+
+    public CinemaSeeder(BenchmarkContext context) {
+        branchRepository = context.getBean(IBranchRepository.class);
+        movieRepository = context.getBean(IMovieRepository.class);
+        roomRepository = context.getBean(IRoomRepository.class);
+        seatRepository = context.getBean(ISeatRepository.class);
+        scheduleRepository = context.getBean(IScheduleRepository.class);
+        ticketRepository = context.getBean(ITicketRepository.class);
+        billRepository = context.getBean(IBillRepository.class);
+        userRepository = context.getBean(IUserRepository.class);
+    }
+
+    public User seedUser() {
+        User user = new User();
+        user.setUsername("bench" + (++sequence) + "@example.com");
+        user.setPassword("123");
+        user.setFullName("Benchmark " + sequence);
+        return userRepository.save(user);
+    }
+
+    public List<Movie> seedMovies(int count) {
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Movie movie = new Movie();
+            movie.setName("Phim " + (++sequence));
+            movie.setShortDescription("Mô tả ngắn của phim " + sequence);
+            movie.setLongDescription("Mô tả dài của phim " + sequence);
+            movie.setSmallImageURl("https://example.com/small/" + sequence + ".jpg");
+            movie.setLargeImageURL("https://example.com/large/" + sequence + ".jpg");
+            movie.setDirector("Đạo diễn " + sequence);
+            movie.setActors("Diễn viên A, Diễn viên B");
+            movie.setCategories(i % 2 == 0 ? "Hành Động, Phiêu Lưu" : "Hài, Hoạt Hình");
+            movie.setReleaseDate(LocalDate.parse("2021-12-24"));
+            movie.setDuration(90 + i % 60);
+            movie.setTrailerURL("https://example.com/trailer/" + sequence);
+            movie.setLanguage("Tiếng Anh - Phụ đề Tiếng Việt");
+            movie.setRated("P - PHIM DÀNH CHO MỌI ĐỐI TƯỢNG");
+            movie.setIsShowing(1);
+            movies.add(movie);
+        }
+        return movieRepository.saveAll(movies);
+    }
+
+    // Tạo 1 lịch chiếu ở phòng có seats ghế, bán sẵn soldRatio số ghế (chọn ngẫu nhiên) cho user
+    public Schedule seedSchedule(int seats, double soldRatio, User user) {
+        Branch branch = new Branch();
+        branch.setName("Chi nhánh " + (++sequence));
+        branch = branchRepository.save(branch);
+
+        Room room = new Room();
+        room.setName("Phòng " + sequence);
+        room.setCapacity(seats);
+        room.setBranch(branch);
+        room = roomRepository.save(room);
+
+        List<Seat> roomSeats = new ArrayList<>(seats);
+        for (int i = 0; i < seats; i++) {
+            Seat seat = new Seat();
+            // Hàng A..Z rồi quay vòng, mỗi hàng 20 ghế
+            seat.setName((char) ('A' + (i / 20) % 26) + String.valueOf(i % 20 + 1));
+            seat.setRoom(room);
+            roomSeats.add(seat);
+        }
+        roomSeats = seatRepository.saveAll(roomSeats);
+
+        Schedule schedule = new Schedule();
+        schedule.setMovie(seedMovies(1).get(0));
+        schedule.setBranch(branch);
+        schedule.setRoom(room);
+        schedule.setStartDate(LocalDate.parse("2021-01-05"));
+        schedule.setStartTime(LocalTime.parse("10:15"));
+        schedule.setPrice(70000);
+        int soldCount = (int) (seats * soldRatio);
+        schedule.setRemainingSeats(seats - soldCount);
+        schedule = scheduleRepository.save(schedule);
+
+        List<Seat> soldSeats = new ArrayList<>(roomSeats);
+        Collections.shuffle(soldSeats, random);
+        seedTickets(schedule, soldSeats.subList(0, soldCount), user);
+        return schedule;
+    }
+
+    // Lịch chiếu của cả hệ thống: branches chi nhánh, mỗi chi nhánh roomsPerBranch phòng, mỗi phòng 4 suất / ngày
+    // trong days ngày tính từ 05/01/2021, mỗi suất chiếu 1 trong các phim (chọn ngẫu nhiên). Phòng không có ghế
+    public List<Schedule> seedTimetable(List<Movie> movies, int branches, int roomsPerBranch, int days) {
+        LocalTime[] startTimes = {LocalTime.parse("09:00"), LocalTime.parse("13:30"),
+                LocalTime.parse("17:45"), LocalTime.parse("21:15")};
+        LocalDate firstDay = LocalDate.parse("2021-01-05");
+        List<Schedule> schedules = new ArrayList<>();
+        for (int b = 0; b < branches; b++) {
+            Branch branch = new Branch();
+            branch.setName("Chi nhánh " + (++sequence));
+            branch = branchRepository.save(branch);
+            for (int r = 0; r < roomsPerBranch; r++) {
+                Room room = new Room();
+                room.setName("Phòng " + (++sequence));
+                room.setCapacity(100);
+                room.setBranch(branch);
+                room = roomRepository.save(room);
+                for (int d = 0; d < days; d++) {
+                    for (LocalTime startTime : startTimes) {
+                        Schedule schedule = new Schedule();
+                        schedule.setMovie(movies.get(random.nextInt(movies.size())));
+                        schedule.setBranch(branch);
+                        schedule.setRoom(room);
+                        schedule.setStartDate(firstDay.plusDays(d));
+                        schedule.setStartTime(startTime);
+                        schedule.setPrice(70000);
+                        schedule.setRemainingSeats(100);
+                        schedules.add(schedule);
+                    }
+                }
+            }
+        }
+        return scheduleRepository.saveAll(schedules);
+    }
+
+    // Mỗi hoá đơn 4 vé như 1 lượt đặt vé bình thường
+    public void seedTickets(Schedule schedule, List<Seat> seats, User user) {
+        List<Ticket> tickets = new ArrayList<>(seats.size());
+        Bill bill = null;
+        for (int i = 0; i < seats.size(); i++) {
+            if (i % 4 == 0) {
+                bill = new Bill();
+                bill.setUser(user);
+                bill.setCreatedTime(LocalDateTime.now());
+                bill = billRepository.save(bill);
+            }
+            Ticket ticket = new Ticket();
+            ticket.setSchedule(schedule);
+            ticket.setSeat(seats.get(i));
+            ticket.setBill(bill);
+            ticket.setQrImageURL("https://example.com/qr.png");
+            tickets.add(ticket);
+        }
+        ticketRepository.saveAll(tickets);
+    }
+}
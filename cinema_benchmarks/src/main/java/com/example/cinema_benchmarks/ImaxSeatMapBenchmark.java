@@ -0,0 +1,76 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.dtos.SeatDTO;
+import com.example.cinema_back_end.entities.Seat;
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.repositories.ISeatRepository;
+import com.example.cinema_back_end.repositories.ITicketRepository;
+import com.example.cinema_back_end.services.ISeatService;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Phòng IMAX 1000 ghế đã bán 900 ghế: sơ đồ ghế hiện tại so với cách ghép ghế đã bán cũ (O(ghế × vé))
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImaxSeatMapBenchmark {
+    private static final int SEATS = 1000;
+    private static final double SOLD_RATIO = 0.9;
+
+    private BenchmarkContext context;
+    private ISeatService seatService;
+    private IScheduleRepository scheduleRepository;
+    private ISeatRepository seatRepository;
+    private ITicketRepository ticketRepository;
+    private ModelMapper modelMapper;
+    private Integer scheduleId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        CinemaSeeder seeder = new CinemaSeeder(context);
+        scheduleId = seeder.seedSchedule(SEATS, SOLD_RATIO, seeder.seedUser()).getId();
+        seatService = context.getBean(ISeatService.class);
+        scheduleRepository = context.getBean(IScheduleRepository.class);
+        seatRepository = context.getBean(ISeatRepository.class);
+        ticketRepository = context.getBean(ITicketRepository.class);
+        modelMapper = context.getBean(ModelMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SeatDTO> getSeatsByScheduleId() {
+        return context.inTransaction(() -> seatService.getSeatsByScheduleId(scheduleId));
+    }
+
+    // Bản cũ của SeatService.getSeatsByScheduleId, giữ lại để so sánh trong cùng 1 lần chạy
+    @Benchmark
+    public List<SeatDTO> legacyOccupancyMerge() {
+        return context.inTransaction(() -> {
+            List<Seat> listSeat = seatRepository.getSeatByRoom_Id(scheduleRepository.getById(scheduleId).getRoom().getId());
+            List<Seat> occupiedSeats = ticketRepository.findTicketsBySchedule_Id(scheduleId)
+                    .stream().map(ticket -> ticket.getSeat())
+                    .collect(Collectors.toList());
+            return listSeat.stream().map(seat -> {
+                SeatDTO seatDTO = modelMapper.map(seat, SeatDTO.class);
+                if (occupiedSeats.stream()
+                        .map(occupiedSeat -> occupiedSeat.getId())
+                        .collect(Collectors.toList()).contains(seat.getId())) {
+                    seatDTO.setIsOccupied(1);
+                }
+                return seatDTO;
+            }).collect(Collectors.toList());
+        });
+    }
+}
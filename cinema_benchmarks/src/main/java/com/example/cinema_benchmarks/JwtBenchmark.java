@@ -0,0 +1,38 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.security.UserPrinciple;
+import com.example.cinema_back_end.security.jwt.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+// Mỗi request /api/** đều kiểm tra chữ ký JWT trong JwtAuthenticationFilter, không cần db
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    private JwtService jwtService;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JwtService();
+        UserPrinciple principle = new UserPrinciple(1, "123", "bench@example.com", Collections.emptyList());
+        token = jwtService.generateTokenLogin(new UsernamePasswordAuthenticationToken(principle, null));
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtService.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUserNameFromJwtToken() {
+        return jwtService.getUserNameFromJwtToken(token);
+    }
+}
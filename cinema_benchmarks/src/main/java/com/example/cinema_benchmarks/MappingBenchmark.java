@@ -0,0 +1,59 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.dtos.TicketDTO;
+import com.example.cinema_back_end.entities.User;
+import com.example.cinema_back_end.services.IMovieService;
+import com.example.cinema_back_end.services.ITicketService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Các đường đi qua ModelMapper: danh sách phim đang chiếu và lịch sử vé của 1 người dùng
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+    @Param({"10", "100"})
+    private int movies;
+    // Số vé trong lịch sử của người dùng
+    @Param({"10", "200"})
+    private int tickets;
+
+    private BenchmarkContext context;
+    private IMovieService movieService;
+    private ITicketService ticketService;
+    private Integer userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        CinemaSeeder seeder = new CinemaSeeder(context);
+        User user = seeder.seedUser();
+        userId = user.getId();
+        seeder.seedMovies(movies);
+        // Phòng vừa đủ ghế, bán hết cho người dùng này
+        seeder.seedSchedule(tickets, 1.0, user);
+        movieService = context.getBean(IMovieService.class);
+        ticketService = context.getBean(ITicketService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MovieDTO> findAllShowingMovies() {
+        return context.inTransaction(() -> movieService.findAllShowingMovies());
+    }
+
+    @Benchmark
+    public List<TicketDTO> getTicketsByUserId() {
+        return context.inTransaction(() -> ticketService.getTicketsByUserId(userId));
+    }
+}
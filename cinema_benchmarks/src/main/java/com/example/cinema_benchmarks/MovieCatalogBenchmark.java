@@ -0,0 +1,56 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.repositories.IMovieRepository;
+import com.example.cinema_back_end.services.IMovieService;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Số request /api/movies/showing mỗi giây: đọc db + ModelMapper mỗi lần (như trước) so với cache danh sách phim
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MovieCatalogBenchmark {
+    @Param({"20", "200"})
+    private int movies;
+
+    private BenchmarkContext context;
+    private IMovieService movieService;
+    private IMovieRepository movieRepository;
+    private ModelMapper modelMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        new CinemaSeeder(context).seedMovies(movies);
+        movieService = context.getBean(IMovieService.class);
+        movieRepository = context.getBean(IMovieRepository.class);
+        modelMapper = context.getBean(ModelMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MovieDTO> uncachedCatalog() {
+        return context.inTransaction(() -> movieRepository.findMoviesByIsShowingOrderByIdDesc(1)
+                .stream()
+                .map(movie -> modelMapper.map(movie, MovieDTO.class))
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<MovieDTO> cachedCatalog() {
+        return movieService.findAllShowingMovies();
+    }
+}
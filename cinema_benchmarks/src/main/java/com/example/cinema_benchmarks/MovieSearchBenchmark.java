@@ -0,0 +1,61 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.dtos.MovieDTO;
+import com.example.cinema_back_end.repositories.IMovieRepository;
+import com.example.cinema_back_end.services.IMovieService;
+import com.example.cinema_back_end.services.MovieService;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Tìm phim theo tên: LIKE '%x%' trên db (như trước) so với chỉ mục n-gram trong bộ nhớ.
+// Thời gian của chỉ mục phải gần như không đổi khi số phim tăng
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieSearchBenchmark {
+    @Param({"100", "10000"})
+    private int movies;
+
+    private BenchmarkContext context;
+    private IMovieService movieService;
+    private IMovieRepository movieRepository;
+    private ModelMapper modelMapper;
+    // Tên đầy đủ của 1 phim ở giữa danh sách, vd "Phim 5000"
+    private String keyword;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        keyword = new CinemaSeeder(context).seedMovies(movies).get(movies / 2).getName();
+        // Phim được thêm sau khi app đã dựng chỉ mục nên dựng lại
+        context.getBean(MovieService.class).buildSearchIndex();
+        movieService = context.getBean(IMovieService.class);
+        movieRepository = context.getBean(IMovieRepository.class);
+        modelMapper = context.getBean(ModelMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MovieDTO> likeQuery() {
+        return context.inTransaction(() -> movieRepository.findMoviesByIsShowingAndNameContaining(1, keyword)
+                .stream()
+                .map(movie -> modelMapper.map(movie, MovieDTO.class))
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<MovieDTO> searchIndex() {
+        return movieService.findAllShowingMoviesByName(keyword);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.events.CatalogChangedEvent;
+import com.example.cinema_back_end.services.IMovieService;
+import com.example.cinema_back_end.services.ResponseBodyCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Số request /api/movies/showing (có gzip) mỗi giây: serialize + nén mỗi request (như trước) so với body dựng sẵn
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ResponseBodyBenchmark {
+    private static final String ACCEPT_ENCODING = "gzip, deflate, br";
+
+    @Param({"20", "200"})
+    private int movies;
+
+    private BenchmarkContext context;
+    private IMovieService movieService;
+    private ResponseBodyCache responseBodyCache;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        new CinemaSeeder(context).seedMovies(movies);
+        movieService = context.getBean(IMovieService.class);
+        responseBodyCache = context.getBean(ResponseBodyCache.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serializeEachRequest() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            objectMapper.writeValue(gzip, movieService.findAllShowingMovies());
+        }
+        return compressed.toByteArray();
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> preEncodedBody() {
+        return responseBodyCache.respond(CatalogChangedEvent.Section.MOVIES, "showing", ACCEPT_ENCODING,
+                movieService::findAllShowingMovies);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.entities.Schedule;
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.services.RoomConflictDetector;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Kiểm tra 1 suất chiếu mới có trùng giờ trong phòng: đọc lịch của phòng từ db rồi dò từng suất (mỗi dòng nhập 1 query)
+// so với cây khoảng của RoomConflictDetector. 1 phòng x 730 ngày x 4 suất = 2.920 lịch chiếu
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomConflictBenchmark {
+    private static final int DAYS = 730;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private BenchmarkContext context;
+    private IScheduleRepository scheduleRepository;
+    private RoomConflictDetector roomConflictDetector;
+    private int roomId;
+    private int duration;
+    // Suất mới chen vào giữa 2 suất có sẵn ở khoảng giữa lịch
+    private LocalDate startDate;
+    private LocalTime startTime;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        CinemaSeeder seeder = new CinemaSeeder(context);
+        List<Schedule> schedules = seeder.seedTimetable(seeder.seedMovies(10), 1, 1, DAYS);
+        scheduleRepository = context.getBean(IScheduleRepository.class);
+        roomConflictDetector = context.getBean(RoomConflictDetector.class);
+
+        Schedule schedule = schedules.get(schedules.size() / 2);
+        roomId = schedule.getRoom().getId();
+        duration = schedule.getMovie().getDuration();
+        startDate = schedule.getStartDate();
+        startTime = LocalTime.parse("11:30");
+        // Nạp cây của phòng trước khi đo
+        roomConflictDetector.findConflicts(roomId, startDate, startTime, duration);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Integer> conflictsQuery() {
+        long start = startDate.toEpochDay() * MINUTES_PER_DAY + startTime.toSecondOfDay() / 60;
+        long end = start + duration + roomConflictDetector.getCleaningMinutes();
+        List<Integer> conflicts = new ArrayList<>();
+        for (Object[] row : scheduleRepository.getTimetableByRoom_Id(roomId)) {
+            long otherStart = ((LocalDate) row[1]).toEpochDay() * MINUTES_PER_DAY + ((LocalTime) row[2]).toSecondOfDay() / 60;
+            long otherEnd = otherStart + (Integer) row[3] + roomConflictDetector.getCleaningMinutes();
+            if (otherStart < end && start < otherEnd) {
+                conflicts.add((Integer) row[0]);
+            }
+        }
+        return conflicts;
+    }
+
+    @Benchmark
+    public List<Integer> conflictsIntervalTree() {
+        return roomConflictDetector.findConflicts(roomId, startDate, startTime, duration);
+    }
+}
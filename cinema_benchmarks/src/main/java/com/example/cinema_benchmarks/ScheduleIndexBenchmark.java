@@ -0,0 +1,110 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.dtos.BranchDTO;
+import com.example.cinema_back_end.dtos.RoomDTO;
+import com.example.cinema_back_end.entities.Branch;
+import com.example.cinema_back_end.entities.Room;
+import com.example.cinema_back_end.entities.Schedule;
+import com.example.cinema_back_end.repositories.IBranchRepository;
+import com.example.cinema_back_end.repositories.IRoomRepository;
+import com.example.cinema_back_end.repositories.IScheduleRepository;
+import com.example.cinema_back_end.services.ScheduleIndex;
+import com.example.cinema_back_end.services.ScheduleService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 4 câu tìm lịch chiếu của luồng đặt vé: query db (như trước) so với chỉ mục lịch chiếu trong bộ nhớ.
+// 50 chi nhánh x 2 phòng x 90 ngày x 4 suất = 36.000 lịch chiếu của 10 phim
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleIndexBenchmark {
+    private static final int BRANCHES = 50;
+    private static final int DAYS = 90;
+
+    private BenchmarkContext context;
+    private IScheduleRepository scheduleRepository;
+    private IBranchRepository branchRepository;
+    private IRoomRepository roomRepository;
+    private ScheduleIndex scheduleIndex;
+    // Khoá của 1 lịch chiếu ở giữa dữ liệu
+    private int movieId;
+    private int branchId;
+    private int roomId;
+    private LocalDate startDate;
+    private LocalTime startTime;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        CinemaSeeder seeder = new CinemaSeeder(context);
+        List<Schedule> schedules = seeder.seedTimetable(seeder.seedMovies(10), BRANCHES, 2, DAYS);
+        // Lịch được thêm sau khi app đã dựng chỉ mục nên dựng lại
+        context.getBean(ScheduleService.class).buildScheduleIndex();
+        scheduleRepository = context.getBean(IScheduleRepository.class);
+        branchRepository = context.getBean(IBranchRepository.class);
+        roomRepository = context.getBean(IRoomRepository.class);
+        scheduleIndex = context.getBean(ScheduleIndex.class);
+
+        Schedule schedule = schedules.get(schedules.size() / 2);
+        movieId = schedule.getMovie().getId();
+        branchId = schedule.getBranch().getId();
+        roomId = schedule.getRoom().getId();
+        startDate = schedule.getStartDate();
+        startTime = schedule.getStartTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<LocalTime> startTimesQuery() {
+        return scheduleRepository.getStartTimeByMovie_IdAndBranch_IdAndStartDate(movieId, branchId, startDate);
+    }
+
+    @Benchmark
+    public List<LocalTime> startTimesIndex() {
+        return scheduleIndex.getStartTimes(movieId, branchId, startDate);
+    }
+
+    @Benchmark
+    public List<Room> roomsQuery() {
+        return context.inTransaction(() ->
+                roomRepository.getRoomByBranchAndMovieAndSchedule(movieId, branchId, startDate, startTime));
+    }
+
+    @Benchmark
+    public List<RoomDTO> roomsIndex() {
+        return scheduleIndex.getRooms(movieId, branchId, startDate, startTime);
+    }
+
+    @Benchmark
+    public List<Branch> branchesQuery() {
+        return context.inTransaction(() -> branchRepository.getBranchThatShowTheMovie(movieId));
+    }
+
+    @Benchmark
+    public List<BranchDTO> branchesIndex() {
+        return scheduleIndex.getBranches(movieId);
+    }
+
+    @Benchmark
+    public List<Schedule> schedulesQuery() {
+        return context.inTransaction(() -> scheduleRepository.getSchedulesByMovie_IdAndBranch_IdAndStartDateAndStartTimeAndRoom_Id(
+                movieId, branchId, startDate, startTime, roomId));
+    }
+
+    @Benchmark
+    public List<Integer> scheduleIdsIndex() {
+        return scheduleIndex.getScheduleIds(movieId, branchId, startDate, startTime, roomId);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.cinema_benchmarks;
+
+import com.example.cinema_back_end.dtos.SeatDTO;
+import com.example.cinema_back_end.services.ISeatService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/seats?scheduleId= : sơ đồ ghế của 1 lịch chiếu theo số ghế của phòng và tỉ lệ ghế đã bán
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeatMapBenchmark {
+    @Param({"50", "500", "2000"})
+    private int seats;
+    @Param({"0.1", "0.5", "0.9"})
+    private double soldRatio;
+
+    private BenchmarkContext context;
+    private ISeatService seatService;
+    private Integer scheduleId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        CinemaSeeder seeder = new CinemaSeeder(context);
+        scheduleId = seeder.seedSchedule(seats, soldRatio, seeder.seedUser()).getId();
+        seatService = context.getBean(ISeatService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SeatDTO> getSeatsByScheduleId() {
+        return context.inTransaction(() -> seatService.getSeatsByScheduleId(scheduleId));
+    }
+}
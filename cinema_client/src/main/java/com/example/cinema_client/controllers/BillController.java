@@ -4,6 +4,7 @@ import com.example.cinema_client.constants.Api;
 import com.example.cinema_client.models.BookingRequestDTO;
 import com.example.cinema_client.models.JwtResponseDTO;
 import com.example.cinema_client.models.ScheduleDTO;
+import com.example.cinema_client.models.SeatHoldDTO;
 import com.example.cinema_client.models.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
@@ -23,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 
@@ -32,6 +35,7 @@ public class BillController {
     @Autowired
     private RestTemplate restTemplate;
     public static String API_CREATE_BILL= Api.baseURL+"/api/bills/create-new-bill";
+    public static String API_HOLD_SEATS= Api.baseURL+"/api/seats/hold";
 
     @PostMapping
     public String displayBillPage(HttpServletRequest request, Model model){
@@ -40,13 +44,33 @@ public class BillController {
         String[] seats = request.getParameterValues("seats");
         List<Integer> listSeatIds = Arrays.stream(seats).map(seat->Integer.parseInt(seat)).collect(Collectors.toList());
         session.setAttribute("listSelectedSeatIds",listSeatIds);
+        ScheduleDTO scheduleFromSession = (ScheduleDTO)session.getAttribute("schedule");
+
+        // Giữ các ghế vừa chọn trên back end trong lúc khách xác nhận thanh toán.
+        // Nếu khách quay lại chọn ghế khác thì trả lượt giữ cũ trước
+        HttpHeaders headers = createHeaders(session);
+        JwtResponseDTO jwtResponseDTO = (JwtResponseDTO)session.getAttribute("jwtResponse");
+        releaseHold(session, headers);
+        BookingRequestDTO body = new BookingRequestDTO();
+        body.setUserId(jwtResponseDTO.getId());
+        body.setScheduleId(scheduleFromSession.getId());
+        body.setListSeatIds(listSeatIds);
+        try {
+            HttpEntity<?> entity = new HttpEntity<>(body, headers);
+            ResponseEntity<SeatHoldDTO> response = restTemplate.exchange(API_HOLD_SEATS, HttpMethod.POST, entity, SeatHoldDTO.class);
+            session.setAttribute("leaseId",response.getBody().getLeaseId());
+            // Mỗi lượt thanh toán 1 key, bấm lại hay refresh trang đặt vé đều gửi lại đúng key này
+            session.setAttribute("idempotencyKey", UUID.randomUUID().toString());
+        }catch (HttpClientErrorException ex){ // Ghế đã có người giữ hoặc đặt trước thì quay lại trang chọn ghế
+            session.setAttribute("bookedError",ex.getResponseBodyAsString());
+            return redirectToSeatSelection(scheduleFromSession);
+        }
 
         // Đếm số ghế:
         Integer numberOfSelectedSeats= listSeatIds.size();
         model.addAttribute("numberOfSelectedSeats",numberOfSelectedSeats);
 
         // Lấy ra tổng tiền:
-        ScheduleDTO scheduleFromSession = (ScheduleDTO)session.getAttribute("schedule");
         Double totalAmount = scheduleFromSession.getPrice() * numberOfSelectedSeats;
         model.addAttribute("totalAmount",totalAmount);
 
@@ -64,19 +88,22 @@ public class BillController {
         HttpSession session = request.getSession();
 
         // Gắn access token jwt vào header để gửi kèm request
-        HttpHeaders headers = new HttpHeaders();
-        headers.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        HttpHeaders headers = createHeaders(session);
         JwtResponseDTO jwtResponseDTO = (JwtResponseDTO)session.getAttribute("jwtResponse");
-        headers.set(HttpHeaders.AUTHORIZATION,"Bearer "+jwtResponseDTO.getAccessToken());
 
 
-        // Đóng gói user id. schedule id và list id các ghế vào request gửi đi
+        // Đóng gói user id. schedule id, list id các ghế và lượt giữ ghế vào request gửi đi
         BookingRequestDTO body = new BookingRequestDTO();
         body.setUserId(jwtResponseDTO.getId());
         ScheduleDTO scheduleFromSession = (ScheduleDTO)session.getAttribute("schedule");
         body.setScheduleId(scheduleFromSession.getId());
         List<Integer> listSeatIds = (List<Integer>)session.getAttribute("listSelectedSeatIds");
         body.setListSeatIds(listSeatIds);
+        body.setLeaseId((String)session.getAttribute("leaseId"));
+        String idempotencyKey = (String)session.getAttribute("idempotencyKey");
+        if(idempotencyKey != null){
+            headers.set("Idempotency-Key",idempotencyKey);
+        }
         model.addAttribute("user",new User());
 
 
@@ -84,18 +111,49 @@ public class BillController {
         try {
             HttpEntity<?> entity = new HttpEntity<>(body, headers);
             ResponseEntity<String> response = restTemplate.exchange(API_CREATE_BILL, HttpMethod.POST, entity, String.class);
-        }catch (HttpClientErrorException ex){ // Nếu đã có người đặt ghế nhanh hơn thì quay lại trang chọn ghế
+        }catch (HttpClientErrorException ex){ // Nếu đã có người đặt ghế nhanh hơn hoặc hết thời gian giữ ghế thì quay lại trang chọn ghế
                  message = ex.getResponseBodyAsString();
                 session.setAttribute("bookedError",message);
-                return "redirect:/seat-selection?movieId="+scheduleFromSession.getMovie().getId()+
-                        "&branchId=+"+scheduleFromSession.getBranch().getId()+"&startDate="+
-                        scheduleFromSession.getStartDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"))+"&startTime="+
-                        scheduleFromSession.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm"))+"&roomId="+
-                        scheduleFromSession.getRoom().getId();
+                return redirectToSeatSelection(scheduleFromSession);
 
         }
 
 
         return "redirect:/tickets/history";
     }
+
+    private HttpHeaders createHeaders(HttpSession session){
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        JwtResponseDTO jwtResponseDTO = (JwtResponseDTO)session.getAttribute("jwtResponse");
+        headers.set(HttpHeaders.AUTHORIZATION,"Bearer "+jwtResponseDTO.getAccessToken());
+        return headers;
+    }
+
+    // Trả lại ghế của lượt giữ còn lưu trên session (nếu có)
+    private void releaseHold(HttpSession session, HttpHeaders headers){
+        String leaseId = (String)session.getAttribute("leaseId");
+        if(leaseId == null){
+            return;
+        }
+        session.removeAttribute("leaseId");
+        JwtResponseDTO jwtResponseDTO = (JwtResponseDTO)session.getAttribute("jwtResponse");
+        String url = UriComponentsBuilder.fromHttpUrl(API_HOLD_SEATS)
+                .queryParam("leaseId", leaseId)
+                .queryParam("userId", jwtResponseDTO.getId())
+                .toUriString();
+        try {
+            restTemplate.exchange(url, HttpMethod.DELETE, new HttpEntity<>(headers), Void.class);
+        }catch (HttpClientErrorException ex){
+            // Lượt giữ đã hết hạn thì thôi
+        }
+    }
+
+    private String redirectToSeatSelection(ScheduleDTO scheduleFromSession){
+        return "redirect:/seat-selection?movieId="+scheduleFromSession.getMovie().getId()+
+                "&branchId=+"+scheduleFromSession.getBranch().getId()+"&startDate="+
+                scheduleFromSession.getStartDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"))+"&startTime="+
+                scheduleFromSession.getStartTime().format(DateTimeFormatter.ofPattern("HH:mm"))+"&roomId="+
+                scheduleFromSession.getRoom().getId();
+    }
 }
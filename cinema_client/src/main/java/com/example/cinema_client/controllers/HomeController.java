@@ -2,8 +2,12 @@ package com.example.cinema_client.controllers;
 
 import com.example.cinema_client.constants.Api;
 import com.example.cinema_client.models.MovieDTO;
+import com.example.cinema_client.models.MovieSummaryDTO;
 import com.example.cinema_client.models.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -11,6 +15,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -25,15 +31,24 @@ public class HomeController {
     @Autowired
     private RestTemplate restTemplate;
 
-    public static String apiGetShowingMovies = Api.baseURL+"/api/movies/showing";
+    // Mỗi lần chỉ lấy 1 trang phim rút gọn cho lưới phim
+    public static final int MOVIES_PER_PAGE = 12;
+    public static String API_GET_SHOWING_MOVIE_SUMMARIES = Api.baseURL+"/api/movies/showing/summaries?limit="+MOVIES_PER_PAGE;
 
     public static String API_GET_SHOWING_MOVIES_BY_NAME = Api.baseURL+"/api/movies/showing/search";
 
+    public static String API_SUGGEST_MOVIES = Api.baseURL+"/api/movies/showing/suggest";
+
     @GetMapping
-    public String displayHomePage(Model model){
-        ResponseEntity<MovieDTO[]> response = restTemplate.getForEntity(apiGetShowingMovies,MovieDTO[].class);
-        MovieDTO[] movies = response.getBody();
+    public String displayHomePage(@RequestParam(required = false) Integer afterId, Model model){
+        String url = afterId == null ? API_GET_SHOWING_MOVIE_SUMMARIES : API_GET_SHOWING_MOVIE_SUMMARIES+"&afterId="+afterId;
+        ResponseEntity<MovieSummaryDTO[]> response = restTemplate.getForEntity(url,MovieSummaryDTO[].class);
+        MovieSummaryDTO[] movies = response.getBody();
         model.addAttribute("movies",movies);
+        // Trang đầy thì có thể còn phim, trang sau bắt đầu sau phim cuối của trang này
+        if(movies.length==MOVIES_PER_PAGE){
+            model.addAttribute("nextAfterId",movies[movies.length-1].getId());
+        }
         model.addAttribute("user",new User());
         return "home";
     }
@@ -56,4 +71,27 @@ public class HomeController {
         model.addAttribute("user",new User());
         return "home";
     }
+
+    // Gợi ý tên phim cho ô tìm kiếm: trả thẳng json của back end kèm Cache-Control để trình duyệt cache lại,
+    // gõ phím không phải render lại trang
+    @GetMapping("movies/suggest")
+    @ResponseBody
+    public ResponseEntity<String> suggestMovies(@RequestParam String prefix){
+        String urlTemplate = UriComponentsBuilder.fromHttpUrl(API_SUGGEST_MOVIES)
+                .queryParam("prefix", "{prefix}")
+                .encode()
+                .toUriString();
+        Map<String,String> listRequestParam = new HashMap<>();
+        listRequestParam.put("prefix", prefix);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response;
+        try {
+            response = restTemplate.getForEntity(urlTemplate,String.class,listRequestParam);
+        }catch (HttpClientErrorException ex){ // Back end từ chối tiền tố (quá dài, ký tự lạ...) thì coi như không có gợi ý
+            return new ResponseEntity<>("[]",headers,HttpStatus.OK);
+        }
+        headers.setCacheControl(response.getHeaders().getCacheControl());
+        return new ResponseEntity<>(response.getBody(),headers,response.getStatusCode());
+    }
 }
@@ -2,7 +2,7 @@ package com.example.cinema_client.controllers;
 
 import com.example.cinema_client.constants.Api;
 import com.example.cinema_client.models.JwtResponseDTO;
-import com.example.cinema_client.models.MovieDTO;
+import com.example.cinema_client.models.MovieSummaryDTO;
 import com.example.cinema_client.models.Role;
 import com.example.cinema_client.models.User;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,8 +48,8 @@ public class LoginController {
         catch (HttpClientErrorException ex){
             model.addAttribute("loginError",ex.getResponseBodyAsString());
             model.addAttribute("hasLoginErrors", true);
-            ResponseEntity<MovieDTO[]> response = restTemplate.getForEntity(HomeController.apiGetShowingMovies, MovieDTO[].class);
-            MovieDTO[] movies = response.getBody();
+            ResponseEntity<MovieSummaryDTO[]> response = restTemplate.getForEntity(HomeController.API_GET_SHOWING_MOVIE_SUMMARIES, MovieSummaryDTO[].class);
+            MovieSummaryDTO[] movies = response.getBody();
             model.addAttribute("movies", movies);
             model.addAttribute("user",new User());
             model.addAttribute("un",user.getUsername());
@@ -64,8 +64,8 @@ public class LoginController {
     public String register(@Valid @ModelAttribute("user") User user, BindingResult bindingResult, Model model, HttpServletRequest request) {
         if (bindingResult.hasErrors()) {
             model.addAttribute("hasErrors", true);
-            ResponseEntity<MovieDTO[]> response = restTemplate.getForEntity(HomeController.apiGetShowingMovies, MovieDTO[].class);
-            MovieDTO[] movies = response.getBody();
+            ResponseEntity<MovieSummaryDTO[]> response = restTemplate.getForEntity(HomeController.API_GET_SHOWING_MOVIE_SUMMARIES, MovieSummaryDTO[].class);
+            MovieSummaryDTO[] movies = response.getBody();
             model.addAttribute("movies", movies);
             return "home";
         } else {
@@ -85,8 +85,8 @@ public class LoginController {
             }catch (HttpClientErrorException ex){
                 model.addAttribute("registerError",ex.getResponseBodyAsString());
                 model.addAttribute("hasErrors", true);
-                ResponseEntity<MovieDTO[]> response = restTemplate.getForEntity(HomeController.apiGetShowingMovies, MovieDTO[].class);
-                MovieDTO[] movies = response.getBody();
+                ResponseEntity<MovieSummaryDTO[]> response = restTemplate.getForEntity(HomeController.API_GET_SHOWING_MOVIE_SUMMARIES, MovieSummaryDTO[].class);
+                MovieSummaryDTO[] movies = response.getBody();
                 model.addAttribute("movies", movies);
                 model.addAttribute("user",new User());
                 model.addAttribute("fn",user.getFullName());
@@ -5,6 +5,7 @@ import com.example.cinema_client.models.JwtResponseDTO;
 import com.example.cinema_client.models.User;
 import org.apache.tomcat.jni.Local;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -18,9 +19,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -29,7 +30,8 @@ public class ScheduleController {
     @Autowired
     private RestTemplate restTemplate;
 
-    public static String API_GET_START_TIMES = Api.baseURL+"/api/schedule/start-times";
+    public static String API_GET_START_TIME_CALENDAR = Api.baseURL+"/api/schedule/calendar";
+    private static final int CALENDAR_DAYS = 10;
 
     @GetMapping
     public String displaySchedulePage(@RequestParam Integer movieId,@RequestParam Integer branchId, Model model, HttpServletRequest request){
@@ -45,31 +47,29 @@ public class ScheduleController {
 
         // Để tạm ngày hôm nay là 30/12
         LocalDate today = LocalDate.parse("2021-01-05");
-        ArrayList<LocalDate> listDates = new ArrayList<>();
-        listDates.add(today);
-        // Lấy ra 10 ngày tính từ hôm nay
-        for(int i=1;i<=9;i++){
-            today = today.plusDays(1);
-            listDates.add(today);
-        }
 
-        //Lấy ra những thời điểm bắt đầu tính từ hôm nay:
-        String urlTemplate = UriComponentsBuilder.fromHttpUrl(API_GET_START_TIMES)
+        // Lấy giờ chiếu của cả 10 ngày tính từ hôm nay trong 1 request
+        String urlTemplate = UriComponentsBuilder.fromHttpUrl(API_GET_START_TIME_CALENDAR)
                 .queryParam("movieId", "{movieId}")
                 .queryParam("branchId","{branchId}")
-                .queryParam("startDate","{startDate}")
+                .queryParam("fromDate","{fromDate}")
+                .queryParam("days","{days}")
                 .encode()
                 .toUriString();
         Map<String,String> listRequestParam = new HashMap<>();
         listRequestParam.put("movieId", movieId+"");
         listRequestParam.put("branchId",branchId+"");
-        listRequestParam.put("startDate",LocalDate.parse("2021-01-05").format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+        listRequestParam.put("fromDate",today.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+        listRequestParam.put("days",CALENDAR_DAYS+"");
 
-        ResponseEntity<String[]> listStartTimesEntity = restTemplate.exchange(urlTemplate,
-                HttpMethod.GET,entity,String[].class,listRequestParam);
+        ResponseEntity<LinkedHashMap<String, List<String>>> calendarEntity = restTemplate.exchange(urlTemplate,
+                HttpMethod.GET,entity,new ParameterizedTypeReference<LinkedHashMap<String, List<String>>>() {},listRequestParam);
+        LinkedHashMap<String, List<String>> calendar = calendarEntity.getBody();
 
-        model.addAttribute("listDates",listDates);
-        model.addAttribute("listStartTimes",listStartTimesEntity.getBody());
+        // Ngày đầu tiên được chọn sẵn nên hiện luôn giờ chiếu của ngày đó, đổi ngày thì trang tự lấy từ calendar
+        model.addAttribute("listDates",calendar.keySet());
+        model.addAttribute("listStartTimes",calendar.get(today.toString()));
+        model.addAttribute("calendar",calendar);
         model.addAttribute("user",new User());
         return "schedule";
     }
@@ -31,6 +31,7 @@ public class SeatController {
 
     public static String API_GET_SCHEDULE=Api.baseURL+"/api/schedule";
     public static String API_GET_SEATS= Api.baseURL+"/api/seats";
+    public static String API_SEAT_STREAM= Api.baseURL+"/api/seats/stream";
 
     @GetMapping
     public String displaySeatSelectionPage(@RequestParam Integer movieId, @RequestParam Integer branchId, @RequestParam String startDate,
@@ -75,10 +76,7 @@ public class SeatController {
                 .toUriString();
         Map<String,String> listRequestParam1 = new HashMap<>();
         listRequestParam1.put("scheduleId", scheduleDTO.getId()+"");
-        ResponseEntity<SeatDTO[]> listSeatDTOResponse = restTemplate.exchange(urlTemplate1,
-                HttpMethod.GET,entity,SeatDTO[].class,listRequestParam1);
-
-        SeatDTO[] listSeatDTOS = (SeatDTO[]) listSeatDTOResponse.getBody();
+        SeatDTO[] listSeatDTOS = getSeats(session, headers, scheduleDTO.getId(), urlTemplate1, listRequestParam1);
         SeatDTO[] listA = new SeatDTO[8];
         SeatDTO[] listB = new SeatDTO[8];
         SeatDTO[] listC = new SeatDTO[8];
@@ -96,8 +94,34 @@ public class SeatController {
         model.addAttribute("listC",listC);
         model.addAttribute("listD",listD);
         model.addAttribute("listE",listE);
+        // Trình duyệt nghe thẳng từ back end các ghế vừa được giữ / bán / trả để cập nhật sơ đồ ghế
+        model.addAttribute("seatStreamURL",API_SEAT_STREAM+"?scheduleId="+scheduleDTO.getId());
         model.addAttribute("user",new User());
 
         return "seats";
     }
+
+    // Gửi kèm ETag của sơ đồ ghế lần trước (lưu trên session), back end trả 304 thì dùng lại sơ đồ cũ
+    private SeatDTO[] getSeats(HttpSession session, HttpHeaders headers, Integer scheduleId,
+                               String urlTemplate, Map<String,String> requestParams){
+        HttpHeaders seatHeaders = new HttpHeaders();
+        seatHeaders.putAll(headers);
+        SeatDTO[] cachedSeats = (SeatDTO[]) session.getAttribute("seatMap");
+        String cachedETag = (String) session.getAttribute("seatMapETag");
+        boolean sameSchedule = scheduleId.equals(session.getAttribute("seatMapScheduleId"));
+        if(sameSchedule && cachedSeats != null && cachedETag != null){
+            seatHeaders.setIfNoneMatch(cachedETag);
+        }
+
+        ResponseEntity<SeatDTO[]> listSeatDTOResponse = restTemplate.exchange(urlTemplate,
+                HttpMethod.GET,new HttpEntity<>(seatHeaders),SeatDTO[].class,requestParams);
+        if(listSeatDTOResponse.getStatusCode() == HttpStatus.NOT_MODIFIED){
+            return cachedSeats;
+        }
+
+        session.setAttribute("seatMapScheduleId",scheduleId);
+        session.setAttribute("seatMapETag",listSeatDTOResponse.getHeaders().getETag());
+        session.setAttribute("seatMap",listSeatDTOResponse.getBody());
+        return listSeatDTOResponse.getBody();
+    }
 }
@@ -9,4 +9,5 @@ public class BookingRequestDTO {
     private Integer userId;
     private Integer scheduleId;
     private List<Integer> listSeatIds;
+    private String leaseId;
 }
@@ -0,0 +1,11 @@
+package com.example.cinema_client.models;
+
+import lombok.Data;
+
+@Data
+public class MovieSummaryDTO {
+    private int id;
+    private String name;
+    private String smallImageURl;
+    private String shortDescription;
+}
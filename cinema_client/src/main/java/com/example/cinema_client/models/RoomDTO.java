@@ -10,4 +10,6 @@ public class RoomDTO {
     private double totalArea;
     private String imgURL;
     private BranchDTO branch;
+    // Số ghế còn trống của phòng trong lịch chiếu đang chọn, null nếu chưa tính
+    private Integer remainingSeats;
 }
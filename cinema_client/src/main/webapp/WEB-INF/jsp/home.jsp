@@ -239,7 +239,8 @@
         <div class = 'search-box d-flex justify-content-between'>
             <h2>Chọn Phim</h2>
             <form action="/" class="search-bar" method="post">
-                <input type="search" name="movie-name" pattern=".*\S.*" required>
+                <input type="search" name="movie-name" pattern=".*\S.*" list="movie-suggestions" autocomplete="off" required>
+                <datalist id="movie-suggestions"></datalist>
                 <button class="search-btn" type="submit">
                     <span>Tìm</span>
                 </button>
@@ -273,6 +274,11 @@
 
 
     </div>
+    <c:if test="${nextAfterId ne null}">
+        <div class="d-flex justify-content-center">
+            <a href="/?afterId=${nextAfterId}" class="btn btn-outline-warning">Xem thêm phim</a>
+        </div>
+    </c:if>
     <!-- end of movie selections -->
 </div>
 </div>
@@ -330,6 +336,39 @@
     </c:otherwise>
 </c:choose>
 
+<script>
+    // Gợi ý tên phim trong lúc gõ, chờ người dùng ngừng gõ 1 chút rồi mới gọi
+    (function () {
+        var input = document.querySelector(".search-bar input[name='movie-name']");
+        var suggestions = document.getElementById("movie-suggestions");
+        var timer = null;
+        input.addEventListener("input", function () {
+            clearTimeout(timer);
+            var prefix = input.value.trim();
+            if (!prefix) {
+                suggestions.innerHTML = "";
+                return;
+            }
+            timer = setTimeout(function () {
+                fetch("/movies/suggest?prefix=" + encodeURIComponent(prefix))
+                    .then(function (response) {
+                        return response.ok ? response.json() : [];
+                    })
+                    .then(function (movies) {
+                        suggestions.innerHTML = "";
+                        movies.forEach(function (movie) {
+                            var option = document.createElement("option");
+                            option.value = movie.name;
+                            suggestions.appendChild(option);
+                        });
+                    })
+                    .catch(function () {
+                    });
+            }, 150);
+        });
+    })();
+</script>
+
 <br>
 <br>
 <jsp:include page="footer.jsp"/>
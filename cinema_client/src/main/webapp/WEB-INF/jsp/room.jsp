@@ -35,8 +35,18 @@
         <div class="card-body">
             <h4 class="card-title"> ${room.name} </h4>
             <p class="card-text">Sức chứa: ${room.capacity} người </p>
-            <a href="seat-selection?movieId=${sessionScope.movieId}&branchId=${sessionScope.branchId}&startDate=${sessionScope.startDate}&startTime=${sessionScope.startTime}&roomId=${room.id}"
-               class="btn btn-outline-danger btn-block">Chọn</a>
+            <c:if test="${room.remainingSeats != null}">
+                <p class="card-text">Còn trống: ${room.remainingSeats} ghế </p>
+            </c:if>
+            <c:choose>
+                <c:when test="${room.remainingSeats != null && room.remainingSeats <= 0}">
+                    <button class="btn btn-secondary btn-block" disabled>Hết ghế</button>
+                </c:when>
+                <c:otherwise>
+                    <a href="seat-selection?movieId=${sessionScope.movieId}&branchId=${sessionScope.branchId}&startDate=${sessionScope.startDate}&startTime=${sessionScope.startTime}&roomId=${room.id}"
+                       class="btn btn-outline-danger btn-block">Chọn</a>
+                </c:otherwise>
+            </c:choose>
         </div>
     </div>
     </c:forEach>
@@ -52,28 +52,23 @@
 <jsp:include page="footer.jsp"/>
 <script src="https://ajax.googleapis.com/ajax/libs/jquery/3.5.1/jquery.min.js"></script>
 <script>
-    function callAPI() {
-        console.log("da goi duoc api!")
-        $.ajax({
-            url: "https://cinema-be.herokuapp.com/api/schedule/start-times?movieId=${sessionScope.movieId}&branchId=${sessionScope.branchId}&startDate=" + $("#listDate").find(":selected").text().trim(),
-            type: 'GET',
-            headers: {"Authorization": "Bearer " +'${sessionScope.jwtResponse.accessToken}'},
-            success: function (data) {
-                console.log("data: "+data)
-                $("#listTimes").html("");
-                data.forEach(startTime => {
-                    $("#listTimes").append("<option value=" + '"' + startTime + '"' + ">" + startTime + "</option>")
-                });
-            },
-            error: function(error){
-                alert(error)
-            }
-        })
+    // Giờ chiếu của cả 10 ngày đã có sẵn trong trang, đổi ngày không cần gọi api
+    const calendar = {
+        <c:forEach items="${calendar}" var="day">
+        "${day.key}": [<c:forEach items="${day.value}" var="startTime" varStatus="status">"${startTime}"<c:if test="${!status.last}">, </c:if></c:forEach>],
+        </c:forEach>
+    };
+
+    function showStartTimes() {
+        const startTimes = calendar[$("#listDate").val()] || [];
+        $("#listTimes").html("");
+        startTimes.forEach(startTime => {
+            $("#listTimes").append("<option value=" + '"' + startTime + '"' + ">" + startTime + "</option>")
+        });
     }
     $(document).ready(function() {
         $('#listDate').on('change', function() {
-            // alert( this.value ); // or $(this).val()
-            callAPI();
+            showStartTimes();
         });
     });
 </script>
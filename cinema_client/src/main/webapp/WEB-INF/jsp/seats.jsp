@@ -164,6 +164,34 @@
     </div>
 </div>
 <jsp:include page="footer.jsp"/>
+<script>
+    // Cập nhật ghế theo thời gian thực: ghế bị giữ / bán thì khoá lại, ghế được trả thì mở ra
+    (function () {
+        if (!window.EventSource) {
+            return;
+        }
+        var opened = false;
+        var source = new EventSource("${seatStreamURL}");
+        source.addEventListener("open", function () {
+            // Kết nối lại sau khi bị ngắt thì có thể đã lỡ vài thay đổi => tải lại sơ đồ ghế
+            if (opened) {
+                location.reload();
+            }
+            opened = true;
+        });
+        source.addEventListener("seats", function (event) {
+            var delta = JSON.parse(event.data);
+            var occupied = delta.status !== "released";
+            delta.seatIds.forEach(function (seatId) {
+                var seat = document.querySelector("input[name='seats'][value='" + seatId + "']");
+                if (seat) {
+                    seat.checked = occupied;
+                    seat.disabled = occupied;
+                }
+            });
+        });
+    })();
+</script>
 </body>
 
 </html>
\ No newline at end of file